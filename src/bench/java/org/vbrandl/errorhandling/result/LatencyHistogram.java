@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+/**
+ * Log-linear latency histogram with a relative error of about 3%. Every power of two range is split into 32 linear
+ * sub buckets. Recording is a few shifts and an array increment; a histogram is owned by a single thread and merged
+ * afterwards.
+ */
+final class LatencyHistogram {
+    /**
+     * Number of bits used for the sub buckets.
+     */
+    private static final int SUB_BITS = 5;
+
+    /**
+     * Number of sub buckets per power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The counts per bucket.
+     */
+    private final long[] counts = new long[(Long.SIZE - SUB_BITS + 1) * SUB_BUCKETS];
+
+    /**
+     * Number of recorded values.
+     */
+    private long total;
+
+    /**
+     * Largest recorded value.
+     */
+    private long max;
+
+    /**
+     * Records a value.
+     * @param nanos The latency in nanoseconds
+     */
+    void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        this.counts[index(value)]++;
+        this.total++;
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Adds the counts of another histogram.
+     * @param other The other histogram
+     */
+    void merge(final LatencyHistogram other) {
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.total += other.total;
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     * @return The number of values
+     */
+    long total() {
+        return this.total;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     * @return The largest value in nanoseconds
+     */
+    long max() {
+        return this.max;
+    }
+
+    /**
+     * Returns a percentile.
+     * @param percentile The percentile in {@code (0, 100]}
+     * @return The upper bound of the bucket containing the percentile, in nanoseconds
+     */
+    long percentile(final double percentile) {
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.total));
+        long seen = 0;
+        for (int i = 0; i < this.counts.length; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Computes the bucket of a value.
+     * @param value The value
+     * @return The index of the bucket
+     */
+    private static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Computes the largest value of a bucket.
+     * @param index The index of the bucket
+     * @return The largest value
+     */
+    private static long upperBound(final int index) {
+        final int range = index / SUB_BUCKETS;
+        final long sub = index % SUB_BUCKETS;
+        if (range == 0) {
+            return sub;
+        }
+        return ((sub + SUB_BUCKETS + 1) << (range - 1)) - 1;
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Load simulation of a multi-stage service that fails at a configurable rate, once implemented with {@link Result}
+ * combinators and once with exceptions. Reports throughput, latency percentiles, allocation rate and GC activity.
+ * <p>
+ * Options: {@code --threads N} (default: available processors), {@code --error-rate R} in {@code [0, 1]} (0.1),
+ * {@code --payload BYTES} (256), {@code --warmup SECONDS} (5), {@code --duration SECONDS} (10) and
+ * {@code --mode result|exception|both} (both). Run with {@code ./gradlew bench -PbenchArgs="--threads 8"}.
+ */
+public final class LoadSimulation {
+    /**
+     * Percentiles that are reported.
+     */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    /**
+     * Number of requests between two checks of the clock.
+     */
+    private static final int CHECK_INTERVAL = 256;
+
+    /**
+     * Receives the combined checksums of all responses, so the work cannot be eliminated.
+     */
+    private static volatile long sink;
+
+    /**
+     * Ctor.
+     */
+    private LoadSimulation() {}
+
+    /**
+     * Runs the simulation.
+     * @param args The options
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        final Map<String, String> options = parse(args);
+        final String cpus = Integer.toString(Runtime.getRuntime().availableProcessors());
+        final int threads = Integer.parseInt(options.getOrDefault("threads", cpus));
+        final double errorRate = Double.parseDouble(options.getOrDefault("error-rate", "0.1"));
+        final int payload = Integer.parseInt(options.getOrDefault("payload", "256"));
+        final long warmup = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("warmup", "5")));
+        final long duration = TimeUnit.SECONDS.toNanos(Long.parseLong(options.getOrDefault("duration", "10")));
+        final String mode = options.getOrDefault("mode", "both");
+        if (threads <= 0 || payload <= 0 || errorRate < 0 || errorRate > 1 || duration <= 0) {
+            throw new IllegalArgumentException("invalid options " + options);
+        }
+
+        final SyntheticService service = new SyntheticService(errorRate, payload);
+        final GcMonitor gc = new GcMonitor();
+        System.out.printf(Locale.ROOT, "threads=%d error-rate=%.4f payload=%d warmup=%ds duration=%ds%n", threads,
+                          errorRate, payload, TimeUnit.NANOSECONDS.toSeconds(warmup),
+                          TimeUnit.NANOSECONDS.toSeconds(duration));
+        System.out.printf(Locale.ROOT, "%-10s %12s %9s %9s %9s %9s %9s %9s %10s %9s %6s %8s %9s%n", "mode", "ops/s",
+                          "p50 us", "p90 us", "p99 us", "p99.9 us", "p99.99 us", "max us", "alloc MB/s", "B/op", "gcs",
+                          "gc ms", "pause ms");
+        if (!"exception".equals(mode)) {
+            run("result", service::handleResult, threads, warmup, duration, gc);
+        }
+        if (!"result".equals(mode)) {
+            run("exception", service::handleException, threads, warmup, duration, gc);
+        }
+    }
+
+    /**
+     * Runs one implementation and prints its measurements.
+     * @param name The name of the implementation
+     * @param handler Handles a request
+     * @param threads The number of threads
+     * @param warmup The warmup time in nanoseconds
+     * @param duration The measurement time in nanoseconds
+     * @param gc The GC monitor
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    private static void run(final String name, final LongFunction<SyntheticService.Response> handler,
+                            final int threads, final long warmup, final long duration, final GcMonitor gc)
+        throws InterruptedException {
+        final List<Worker> workers = new ArrayList<>(threads);
+        final CountDownLatch done = new CountDownLatch(threads);
+        final long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        for (int i = 0; i < threads; i++) {
+            final Worker worker = new Worker(handler, i, threads, start + warmup, start + warmup + duration, done);
+            workers.add(worker);
+            final Thread thread = new Thread(worker, "load-" + name + "-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        final long warmupEnd = start + warmup;
+        while (System.nanoTime() < warmupEnd) {
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, warmupEnd - System.nanoTime()));
+        }
+        final GcMonitor.Snapshot before = gc.snapshot();
+        done.await();
+        final GcMonitor.Snapshot after = gc.snapshot();
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        long allocated = 0;
+        long blackhole = 0;
+        for (final Worker worker : workers) {
+            histogram.merge(worker.histogram);
+            allocated += worker.allocated;
+            blackhole ^= worker.blackhole;
+        }
+        final double seconds = duration / 1e9;
+        final long ops = histogram.total();
+        final StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-10s %12.0f", name, ops / seconds));
+        for (final double percentile : PERCENTILES) {
+            row.append(String.format(Locale.ROOT, " %9.1f", histogram.percentile(percentile) / 1e3));
+        }
+        row.append(String.format(Locale.ROOT, " %9.1f %10.1f %9.0f %6d %8d %9.1f", histogram.max() / 1e3,
+                                 allocated < 0 ? -1 : allocated / seconds / (1 << 20),
+                                 allocated < 0 || ops == 0 ? -1 : (double) allocated / ops,
+                                 after.count - before.count, after.time - before.time,
+                                 gc.maxPauseSince(before) / 1e3));
+        System.out.println(row);
+        sink = blackhole;
+    }
+
+    /**
+     * Parses options of the form {@code --name value}.
+     * @param args The arguments
+     * @return The options by name
+     */
+    private static Map<String, String> parse(final String[] args) {
+        final Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("expected an option but got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /**
+     * Sends requests from a single thread.
+     */
+    private static final class Worker implements Runnable {
+        /**
+         * Handles a request.
+         */
+        private final LongFunction<SyntheticService.Response> handler;
+
+        /**
+         * Id of the first request of this worker.
+         */
+        private final long first;
+
+        /**
+         * Distance between two request ids of this worker.
+         */
+        private final long stride;
+
+        /**
+         * End of the warmup.
+         */
+        private final long measureStart;
+
+        /**
+         * End of the measurement.
+         */
+        private final long measureEnd;
+
+        /**
+         * Counted down when the worker is done.
+         */
+        private final CountDownLatch done;
+
+        /**
+         * Latencies during the measurement.
+         */
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /**
+         * Bytes allocated during the measurement, {@code -1} if not supported by the JVM.
+         */
+        private long allocated = -1;
+
+        /**
+         * Combined checksums of all responses, so the work cannot be eliminated.
+         */
+        private long blackhole;
+
+        /**
+         * Ctor.
+         * @param handler Handles a request
+         * @param first Id of the first request of this worker
+         * @param stride Distance between two request ids of this worker
+         * @param measureStart End of the warmup
+         * @param measureEnd End of the measurement
+         * @param done Counted down when the worker is done
+         */
+        Worker(final LongFunction<SyntheticService.Response> handler, final long first, final long stride,
+               final long measureStart, final long measureEnd, final CountDownLatch done) {
+            this.handler = handler;
+            this.first = first;
+            this.stride = stride;
+            this.measureStart = measureStart;
+            this.measureEnd = measureEnd;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long id = this.first;
+                id = loop(id, this.measureStart, false);
+                final long allocStart = allocatedBytes();
+                loop(id, this.measureEnd, true);
+                final long allocEnd = allocatedBytes();
+                this.allocated = allocStart < 0 || allocEnd < 0 ? -1 : allocEnd - allocStart;
+            } finally {
+                this.done.countDown();
+            }
+        }
+
+        /**
+         * Sends requests until a deadline.
+         * @param firstId The id of the first request
+         * @param deadline The deadline
+         * @param measure Whether to record the latencies
+         * @return The id of the next request
+         */
+        private long loop(final long firstId, final long deadline, final boolean measure) {
+            long id = firstId;
+            while (true) {
+                for (int i = 0; i < CHECK_INTERVAL; i++) {
+                    final long start = System.nanoTime();
+                    final SyntheticService.Response response = this.handler.apply(id);
+                    final long end = System.nanoTime();
+                    this.blackhole += response.checksum;
+                    if (measure) {
+                        this.histogram.record(end - start);
+                    }
+                    id += this.stride;
+                }
+                if (System.nanoTime() >= deadline) {
+                    return id;
+                }
+            }
+        }
+
+        /**
+         * Returns the number of bytes allocated by the current thread.
+         * @return The number of bytes or {@code -1} if not supported
+         */
+        private static long allocatedBytes() {
+            final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(
+                    Thread.currentThread().getId());
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Collects GC counts, times and pauses.
+     */
+    private static final class GcMonitor {
+        /**
+         * Pause durations in microseconds with their end time in nanoseconds, most recent last.
+         */
+        private final List<long[]> pauses = new ArrayList<>();
+
+        /**
+         * Ctor. Subscribes to GC notifications where the JVM supports them.
+         */
+        GcMonitor() {
+            for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (bean instanceof NotificationEmitter) {
+                    ((NotificationEmitter) bean).addNotificationListener((notification, handback) -> {
+                        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+                            .equals(notification.getType())) {
+                            final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from(
+                                (CompositeData) notification.getUserData());
+                            synchronized (this.pauses) {
+                                this.pauses.add(new long[] {info.getGcInfo().getDuration() * 1000,
+                                                            System.nanoTime(), });
+                            }
+                        }
+                    }, null, null);
+                }
+            }
+        }
+
+        /**
+         * Takes a snapshot of the GC counters.
+         * @return The snapshot
+         */
+        Snapshot snapshot() {
+            long count = 0;
+            long time = 0;
+            for (final GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, bean.getCollectionCount());
+                time += Math.max(0, bean.getCollectionTime());
+            }
+            return new Snapshot(count, time, System.nanoTime());
+        }
+
+        /**
+         * Returns the longest pause that ended after a snapshot.
+         * @param since The snapshot
+         * @return The longest pause in microseconds
+         */
+        long maxPauseSince(final Snapshot since) {
+            long max = 0;
+            synchronized (this.pauses) {
+                for (final long[] pause : this.pauses) {
+                    if (pause[1] >= since.nanos) {
+                        max = Math.max(max, pause[0]);
+                    }
+                }
+            }
+            return max;
+        }
+
+        /**
+         * GC counters at a point in time.
+         */
+        static final class Snapshot {
+            /**
+             * Number of collections.
+             */
+            private final long count;
+
+            /**
+             * Accumulated collection time in milliseconds.
+             */
+            private final long time;
+
+            /**
+             * Time of the snapshot.
+             */
+            private final long nanos;
+
+            /**
+             * Ctor.
+             * @param count Number of collections
+             * @param time Accumulated collection time in milliseconds
+             * @param nanos Time of the snapshot
+             */
+            Snapshot(final long count, final long time, final long nanos) {
+                this.count = count;
+                this.time = time;
+                this.nanos = nanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+/**
+ * Synthetic four stage service (decode, validate, enrich, persist) implemented once with {@link Result} combinators
+ * and once with checked exceptions. Whether and in which stage a request fails is derived from its id, so both
+ * implementations see exactly the same failures.
+ */
+final class SyntheticService {
+    /**
+     * Number of stages that can fail.
+     */
+    private static final int FAILING_STAGES = 3;
+
+    /**
+     * Response returned for failed requests.
+     */
+    private static final Response FALLBACK = new Response(-1, 0);
+
+    /**
+     * Probability that a request fails.
+     */
+    private final double errorRate;
+
+    /**
+     * Size of the payload of a request in bytes.
+     */
+    private final int payload;
+
+    /**
+     * Ctor.
+     * @param errorRate Probability that a request fails
+     * @param payload Size of the payload of a request in bytes
+     */
+    SyntheticService(final double errorRate, final int payload) {
+        this.errorRate = errorRate;
+        this.payload = payload;
+    }
+
+    /**
+     * Handles a request with {@link Result} combinators.
+     * @param id The id of the request
+     * @return The response, or a fallback if the request failed
+     */
+    Response handleResult(final long id) {
+        return decode(id)
+            .andThen(this::validate)
+            .andThen(this::enrich)
+            .map(this::persist)
+            .unwrapOr(FALLBACK);
+    }
+
+    /**
+     * Handles a request with exceptions.
+     * @param id The id of the request
+     * @return The response, or a fallback if the request failed
+     */
+    Response handleException(final long id) {
+        try {
+            return persist(enrichOrThrow(validateOrThrow(decodeOrThrow(id))));
+        } catch (final ServiceException ex) {
+            return FALLBACK;
+        }
+    }
+
+    /**
+     * Decodes a request.
+     * @param id The id of the request
+     * @return The request or an error
+     */
+    private Result<Request, ServiceError> decode(final long id) {
+        final Request request = new Request(id, this.payload, failingStage(id));
+        return request.failAt == 0 ? new Err<>(new ServiceError(id, "malformed")) : new Ok<>(request);
+    }
+
+    /**
+     * Validates a request.
+     * @param request The request
+     * @return The request or an error
+     */
+    private Result<Request, ServiceError> validate(final Request request) {
+        checksum(request.payload);
+        return request.failAt == 1 ? new Err<>(new ServiceError(request.id, "invalid")) : new Ok<>(request);
+    }
+
+    /**
+     * Enriches a request.
+     * @param request The request
+     * @return The enriched request or an error
+     */
+    private Result<Enriched, ServiceError> enrich(final Request request) {
+        if (request.failAt == 2) {
+            return new Err<>(new ServiceError(request.id, "lookup failed"));
+        }
+        return new Ok<>(new Enriched(request, "customer-" + (request.id & 1023)));
+    }
+
+    /**
+     * Decodes a request.
+     * @param id The id of the request
+     * @return The request
+     * @throws ServiceException if the request is malformed
+     */
+    private Request decodeOrThrow(final long id) throws ServiceException {
+        final Request request = new Request(id, this.payload, failingStage(id));
+        if (request.failAt == 0) {
+            throw new ServiceException(new ServiceError(id, "malformed"));
+        }
+        return request;
+    }
+
+    /**
+     * Validates a request.
+     * @param request The request
+     * @return The request
+     * @throws ServiceException if the request is invalid
+     */
+    private Request validateOrThrow(final Request request) throws ServiceException {
+        checksum(request.payload);
+        if (request.failAt == 1) {
+            throw new ServiceException(new ServiceError(request.id, "invalid"));
+        }
+        return request;
+    }
+
+    /**
+     * Enriches a request.
+     * @param request The request
+     * @return The enriched request
+     * @throws ServiceException if the lookup fails
+     */
+    private Enriched enrichOrThrow(final Request request) throws ServiceException {
+        if (request.failAt == 2) {
+            throw new ServiceException(new ServiceError(request.id, "lookup failed"));
+        }
+        return new Enriched(request, "customer-" + (request.id & 1023));
+    }
+
+    /**
+     * Persists an enriched request.
+     * @param enriched The enriched request
+     * @return The response
+     */
+    private Response persist(final Enriched enriched) {
+        return new Response(enriched.request.id, checksum(enriched.request.payload) ^ enriched.customer.hashCode());
+    }
+
+    /**
+     * Derives the failing stage of a request from its id.
+     * @param id The id of the request
+     * @return The index of the failing stage or {@code -1}
+     */
+    private int failingStage(final long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        h *= 0xD6E8FEB86659FD93L;
+        h ^= h >>> 32;
+        final double uniform = (h >>> 11) * 0x1.0p-53;
+        return uniform < this.errorRate ? (int) (uniform / this.errorRate * FAILING_STAGES) : -1;
+    }
+
+    /**
+     * Simulates work on the payload.
+     * @param payload The payload
+     * @return A checksum of the payload
+     */
+    private static int checksum(final byte[] payload) {
+        int sum = 1;
+        for (final byte b : payload) {
+            sum = 31 * sum + b;
+        }
+        return sum;
+    }
+
+    /**
+     * A decoded request.
+     */
+    private static final class Request {
+        /**
+         * The id of the request.
+         */
+        private final long id;
+
+        /**
+         * The payload.
+         */
+        private final byte[] payload;
+
+        /**
+         * The index of the failing stage or {@code -1}.
+         */
+        private final int failAt;
+
+        /**
+         * Ctor.
+         * @param id The id of the request
+         * @param size The size of the payload
+         * @param failAt The index of the failing stage or {@code -1}
+         */
+        Request(final long id, final int size, final int failAt) {
+            this.id = id;
+            this.payload = new byte[size];
+            this.payload[0] = (byte) id;
+            this.failAt = failAt;
+        }
+    }
+
+    /**
+     * An enriched request.
+     */
+    private static final class Enriched {
+        /**
+         * The request.
+         */
+        private final Request request;
+
+        /**
+         * The customer looked up for the request.
+         */
+        private final String customer;
+
+        /**
+         * Ctor.
+         * @param request The request
+         * @param customer The customer looked up for the request
+         */
+        Enriched(final Request request, final String customer) {
+            this.request = request;
+            this.customer = customer;
+        }
+    }
+
+    /**
+     * The response to a request.
+     */
+    static final class Response {
+        /**
+         * The id of the request, {@code -1} for a failed request.
+         */
+        final long id;
+
+        /**
+         * The checksum of the persisted data.
+         */
+        final int checksum;
+
+        /**
+         * Ctor.
+         * @param id The id of the request
+         * @param checksum The checksum of the persisted data
+         */
+        Response(final long id, final int checksum) {
+            this.id = id;
+            this.checksum = checksum;
+        }
+    }
+
+    /**
+     * Error of a failed stage.
+     */
+    private static final class ServiceError {
+        /**
+         * The id of the request.
+         */
+        private final long id;
+
+        /**
+         * The reason of the failure.
+         */
+        private final String reason;
+
+        /**
+         * Ctor.
+         * @param id The id of the request
+         * @param reason The reason of the failure
+         */
+        ServiceError(final long id, final String reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        @Override
+        public String toString() {
+            return this.id + ": " + this.reason;
+        }
+    }
+
+    /**
+     * Exception carrying a {@link ServiceError}, with a stack trace like a typical application exception.
+     */
+    private static final class ServiceException extends Exception {
+        /**
+         * Serial version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Ctor.
+         * @param error The error
+         */
+        ServiceException(final ServiceError error) {
+            super(error.toString());
+        }
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Collects single key lookups into batches. Keys are queued until either {@code maxBatchSize} distinct keys are
+ * pending or the batch window elapsed, then a single call of the batch function loads all of them and each caller's
+ * future is completed with the result for its key. Keys missing from the returned map complete with an {@link Err}.
+ * Requesting a key that is already pending returns the same future.
+ * <p>
+ * If the batch function throws or the executor rejects the batch, the futures of the batch complete exceptionally.
+ * @param <K> The type of the keys
+ * @param <V> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class BatchLoader<K, V, E> {
+    /**
+     * Loads a batch of keys.
+     */
+    private final Function<? super List<K>, ? extends Map<K, ? extends Result<V, E>>> batchFn;
+
+    /**
+     * Creates the error for a key that is missing from the loaded batch.
+     */
+    private final Function<? super K, ? extends E> missing;
+
+    /**
+     * Maximum number of keys per batch.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Batch window in nanoseconds.
+     */
+    private final long window;
+
+    /**
+     * Runs the batch function.
+     */
+    private final Executor executor;
+
+    /**
+     * Timer for the batch window.
+     */
+    private final TimerWheel wheel;
+
+    /**
+     * Guards {@code pending} and {@code timeout}.
+     */
+    private final Object lock = new Object();
+
+    /**
+     * Keys of the current batch and their futures.
+     */
+    private Map<K, CompletableFuture<Result<V, E>>> pending = new LinkedHashMap<>();
+
+    /**
+     * The window of the current batch, {@code null} if the batch is empty.
+     */
+    private TimerWheel.Timeout timeout;
+
+    /**
+     * Ctor. The batch window is timed by {@link TimerWheel#shared()}.
+     * @param batchFn Loads a batch of keys
+     * @param missing Creates the error for a key that is missing from the loaded batch
+     * @param maxBatchSize Maximum number of keys per batch
+     * @param window Time to wait for more keys after the first key of a batch
+     * @param unit Unit of {@code window}
+     * @param executor Runs the batch function
+     */
+    public BatchLoader(final Function<? super List<K>, ? extends Map<K, ? extends Result<V, E>>> batchFn,
+                       final Function<? super K, ? extends E> missing, final int maxBatchSize, final long window,
+                       final TimeUnit unit, final Executor executor) {
+        this(batchFn, missing, maxBatchSize, window, unit, executor, TimerWheel.shared());
+    }
+
+    /**
+     * Ctor.
+     * @param batchFn Loads a batch of keys
+     * @param missing Creates the error for a key that is missing from the loaded batch
+     * @param maxBatchSize Maximum number of keys per batch
+     * @param window Time to wait for more keys after the first key of a batch
+     * @param unit Unit of {@code window}
+     * @param executor Runs the batch function
+     * @param wheel Timer for the batch window
+     */
+    public BatchLoader(final Function<? super List<K>, ? extends Map<K, ? extends Result<V, E>>> batchFn,
+                       final Function<? super K, ? extends E> missing, final int maxBatchSize, final long window,
+                       final TimeUnit unit, final Executor executor, final TimerWheel wheel) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.batchFn = batchFn;
+        this.missing = missing;
+        this.maxBatchSize = maxBatchSize;
+        this.window = unit.toNanos(window);
+        this.executor = executor;
+        this.wheel = wheel;
+    }
+
+    /**
+     * Requests a single key.
+     * @param key The key
+     * @return A future that completes with the result for {@code key}
+     */
+    public CompletableFuture<Result<V, E>> load(final K key) {
+        final CompletableFuture<Result<V, E>> future;
+        Map<K, CompletableFuture<Result<V, E>>> full = null;
+        synchronized (this.lock) {
+            final CompletableFuture<Result<V, E>> existing = this.pending.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            future = new CompletableFuture<>();
+            this.pending.put(key, future);
+            if (this.pending.size() >= this.maxBatchSize) {
+                full = take();
+            } else if (this.timeout == null) {
+                final Map<K, CompletableFuture<Result<V, E>>> batch = this.pending;
+                this.timeout = this.wheel.schedule(() -> flush(batch), this.window, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * Requests several keys.
+     * @param keys The keys
+     * @return A future that completes with the results for {@code keys}, in the same order
+     */
+    public CompletableFuture<List<Result<V, E>>> loadAll(final List<? extends K> keys) {
+        final List<CompletableFuture<Result<V, E>>> futures = new ArrayList<>(keys.size());
+        for (final K key : keys) {
+            futures.add(load(key));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            final List<Result<V, E>> results = new ArrayList<>(futures.size());
+            for (final CompletableFuture<Result<V, E>> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Dispatches the current batch without waiting for the window to elapse.
+     */
+    public void flush() {
+        final Map<K, CompletableFuture<Result<V, E>>> batch;
+        synchronized (this.lock) {
+            batch = take();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Dispatches a batch when its window elapsed, unless it was dispatched already.
+     * @param batch The batch the window was scheduled for
+     */
+    private void flush(final Map<K, CompletableFuture<Result<V, E>>> batch) {
+        synchronized (this.lock) {
+            if (this.pending != batch) {
+                return;
+            }
+            take();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Removes the current batch. Must be called while holding the lock.
+     * @return The current batch
+     */
+    private Map<K, CompletableFuture<Result<V, E>>> take() {
+        final Map<K, CompletableFuture<Result<V, E>>> batch = this.pending;
+        this.pending = new LinkedHashMap<>();
+        if (this.timeout != null) {
+            this.timeout.cancel();
+            this.timeout = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Runs the batch function for a batch on the executor.
+     * @param batch The batch
+     */
+    private void dispatch(final Map<K, CompletableFuture<Result<V, E>>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    complete(batch, this.batchFn.apply(new ArrayList<>(batch.keySet())));
+                } catch (final RuntimeException | Error ex) {
+                    for (final CompletableFuture<Result<V, E>> future : batch.values()) {
+                        future.completeExceptionally(ex);
+                    }
+                    if (ex instanceof Error) {
+                        throw ex;
+                    }
+                }
+            });
+        } catch (final RuntimeException ex) {
+            for (final CompletableFuture<Result<V, E>> future : batch.values()) {
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+
+    /**
+     * Completes the futures of a batch.
+     * @param batch The batch
+     * @param loaded The results returned by the batch function
+     */
+    private void complete(final Map<K, CompletableFuture<Result<V, E>>> batch,
+                          final Map<K, ? extends Result<V, E>> loaded) {
+        for (final Map.Entry<K, CompletableFuture<Result<V, E>>> entry : batch.entrySet()) {
+            final Result<V, E> result = loaded == null ? null : loaded.get(entry.getKey());
+            entry.getValue().complete(result == null ? new Err<>(this.missing.apply(entry.getKey())) : result);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+/**
+ * Scope of a {@link Result#run} block. {@link #bind(Result)} unwraps an {@link Ok} or leaves the block with the
+ * {@link Err}, which allows to write fallible workflows as straight-line code instead of nested
+ * {@link Result#andThen} closures:
+ * <pre>{@code
+ * Result<Order, String> order = Result.run(scope -> {
+ *     final User user = scope.bind(loadUser(id));
+ *     final Cart cart = scope.bind(loadCart(user));
+ *     return Result.ok(new Order(user, cart));
+ * });
+ * }</pre>
+ * A scope must not be used after its block returned.
+ * @param <E> The type of the Err value
+ */
+public final class BindScope<E> {
+    /**
+     * The {@link Err} that left the block or {@code null}.
+     */
+    private Result<?, E> failure;
+
+    /**
+     * Whether the block already returned.
+     */
+    private boolean closed;
+
+    /**
+     * Ctor.
+     */
+    BindScope() {}
+
+    /**
+     * Unwraps an {@link Ok} or leaves the block with the {@link Err}.
+     * @param result The result to unwrap
+     * @param <T> The type of the Ok value
+     * @return The wrapped value, {@code null} for an empty {@link Ok}
+     */
+    public <T> T bind(final Result<T, E> result) {
+        if (this.closed) {
+            throw new IllegalStateException("scope used outside of its block");
+        }
+        if (result.isOk()) {
+            return result.unwrapOr(null);
+        }
+        this.failure = result;
+        throw BindExit.INSTANCE;
+    }
+
+    /**
+     * Returns the {@link Err} that left the block.
+     * @param <T> The type of the Ok value
+     * @return The {@link Err} or {@code null} if the block was not left through this scope
+     */
+    @SuppressWarnings("unchecked")
+    <T> Result<T, E> failure() {
+        return (Result<T, E>) this.failure;
+    }
+
+    /**
+     * Marks the block as returned.
+     */
+    void close() {
+        this.closed = true;
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Adaptive bulkhead that limits the number of concurrent calls to a dependency. A call above the limit is not queued
+ * but rejected immediately with a preallocated {@link Err}. After every call the limit is adjusted from the observed
+ * latency and the decaying ratio of failed calls, either by additive increase and multiplicative decrease
+ * ({@link #aimd}) or by comparing short and long term latency ({@link #gradient}). A call fails if it returns an
+ * {@link Err} or throws; the exception is passed on to the caller.
+ * <p>
+ * Acquiring and releasing a permit are CAS loops on atomic counters, the limit is stored as the bits of a double in an
+ * {@link AtomicLong}. A release folds its latency into the moving averages once and then recomputes the next limit
+ * from the latest limit until its CAS succeeds, so concurrent releases do not lose updates.
+ * @param <E> The type of the Err value
+ */
+public final class ConcurrencyLimiter<E> {
+    /**
+     * Weight of a new sample in the decaying error ratio.
+     */
+    private static final double ERROR_DECAY = 0.05;
+
+    /**
+     * Error ratio above which a failed call lowers the limit.
+     */
+    private static final double ERROR_THRESHOLD = 0.1;
+
+    /**
+     * Factor applied to the limit when it is lowered.
+     */
+    private static final double BACKOFF = 0.9;
+
+    /**
+     * Weight of a new sample in the short term latency.
+     */
+    private static final double SHORT_DECAY = 0.1;
+
+    /**
+     * Weight of a new sample in the long term latency.
+     */
+    private static final double LONG_DECAY = 0.01;
+
+    /**
+     * Computes the next limit.
+     */
+    private final Algorithm algorithm;
+
+    /**
+     * Lower bound of the limit.
+     */
+    private final int minLimit;
+
+    /**
+     * Upper bound of the limit.
+     */
+    private final int maxLimit;
+
+    /**
+     * The current limit, as the bits of a double.
+     */
+    private final AtomicLong limit;
+
+    /**
+     * The decaying ratio of failed calls, as the bits of a double.
+     */
+    private final AtomicLong errorRatio = new AtomicLong(Double.doubleToRawLongBits(0));
+
+    /**
+     * Short term latency in nanoseconds, as the bits of a double, negative before the first sample.
+     */
+    private final AtomicLong shortRtt = new AtomicLong(Double.doubleToRawLongBits(-1));
+
+    /**
+     * Long term latency in nanoseconds, as the bits of a double, negative before the first sample.
+     */
+    private final AtomicLong longRtt = new AtomicLong(Double.doubleToRawLongBits(-1));
+
+    /**
+     * Number of calls in flight.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Number of rejected calls.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * The result of a rejected call.
+     */
+    private final Err<Object, E> rejection;
+
+    /**
+     * Ctor.
+     * @param algorithm Computes the next limit
+     * @param initialLimit The initial limit
+     * @param minLimit Lower bound of the limit
+     * @param maxLimit Upper bound of the limit
+     * @param rejectionError The error of a rejected call
+     */
+    private ConcurrencyLimiter(final Algorithm algorithm, final int initialLimit, final int minLimit,
+                               final int maxLimit, final E rejectionError) {
+        if (minLimit <= 0 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("limits must satisfy 0 < minLimit <= maxLimit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit must be in [minLimit, maxLimit]");
+        }
+        this.algorithm = algorithm;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = new AtomicLong(Double.doubleToRawLongBits(initialLimit));
+        this.rejection = new Err<>(rejectionError);
+    }
+
+    /**
+     * Creates a limiter that increases its limit by one after a successful call while at least half of the limit is
+     * in use, and multiplies it by 0.9 after a call while the short term latency exceeds the latency threshold or
+     * after a failed call, i.e. an {@link Err} or an exception, while more than 10% of the recent calls failed.
+     * @param initialLimit The initial limit
+     * @param minLimit Lower bound of the limit
+     * @param maxLimit Upper bound of the limit
+     * @param latencyThreshold Latency above which a call counts as overload
+     * @param unit Unit of {@code latencyThreshold}
+     * @param rejectionError The error of a rejected call
+     * @param <E> The type of the Err value
+     * @return A new limiter
+     */
+    public static <E> ConcurrencyLimiter<E> aimd(final int initialLimit, final int minLimit, final int maxLimit,
+                                                 final long latencyThreshold, final TimeUnit unit,
+                                                 final E rejectionError) {
+        return new ConcurrencyLimiter<>(new Aimd(unit.toNanos(latencyThreshold)), initialLimit, minLimit, maxLimit,
+                                        rejectionError);
+    }
+
+    /**
+     * Creates a limiter that scales its limit by the ratio of long term to short term latency, plus the square root
+     * of the limit as headroom, so the limit shrinks as soon as queueing in the dependency raises the latency. Like
+     * {@link #aimd}, the limit is multiplied by 0.9 after a failed call, i.e. an {@link Err} or an exception, while
+     * more than 10% of the recent calls failed.
+     * @param initialLimit The initial limit
+     * @param minLimit Lower bound of the limit
+     * @param maxLimit Upper bound of the limit
+     * @param rejectionError The error of a rejected call
+     * @param <E> The type of the Err value
+     * @return A new limiter
+     */
+    public static <E> ConcurrencyLimiter<E> gradient(final int initialLimit, final int minLimit, final int maxLimit,
+                                                     final E rejectionError) {
+        return new ConcurrencyLimiter<>(new Gradient(), initialLimit, minLimit, maxLimit, rejectionError);
+    }
+
+    /**
+     * Runs a call if the limit permits it. An exception thrown by the call counts as a failure, like an {@link Err},
+     * and is rethrown.
+     * @param call The call
+     * @param <T> The type of the Ok value
+     * @return The result of the call or the rejection {@link Err}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T, E> call(final Supplier<? extends Result<T, E>> call) {
+        final int current = acquire();
+        if (current < 0) {
+            this.rejected.increment();
+            return (Result<T, E>) this.rejection;
+        }
+        final long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            final Result<T, E> result = call.get();
+            ok = result.isOk();
+            return result;
+        } finally {
+            this.inFlight.decrementAndGet();
+            release(System.nanoTime() - start, ok, current);
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     * @return The maximum number of concurrent calls
+     */
+    public int limit() {
+        return (int) currentLimit();
+    }
+
+    /**
+     * Returns the number of calls in flight.
+     * @return The number of calls
+     */
+    public int inFlight() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Returns the number of rejected calls.
+     * @return The number of calls
+     */
+    public long rejected() {
+        return this.rejected.sum();
+    }
+
+    /**
+     * Returns the decaying ratio of failed calls, i.e. calls that returned an {@link Err} or threw.
+     * @return The ratio in {@code [0, 1]}
+     */
+    public double errorRatio() {
+        return Double.longBitsToDouble(this.errorRatio.get());
+    }
+
+    /**
+     * Takes a permit.
+     * @return The number of calls in flight including this one, or {@code -1} if the limit is reached
+     */
+    private int acquire() {
+        while (true) {
+            final int current = this.inFlight.get();
+            if (current >= limit()) {
+                return -1;
+            }
+            if (this.inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Adjusts the limit after a call.
+     * @param rtt The latency of the call in nanoseconds
+     * @param ok Whether the call returned an {@link Ok}
+     * @param concurrency The number of calls in flight when the call started, including itself
+     */
+    private void release(final long rtt, final boolean ok, final int concurrency) {
+        final double ratio = Ewma.update(this.errorRatio, ok ? 0 : 1, ERROR_DECAY);
+        final boolean overload = !ok && ratio > ERROR_THRESHOLD;
+        final double recent = Ewma.update(this.shortRtt, rtt, SHORT_DECAY);
+        final double baseline = Ewma.update(this.longRtt, rtt, LONG_DECAY);
+        while (true) {
+            final long bits = this.limit.get();
+            final double current = Double.longBitsToDouble(bits);
+            final double next = overload ? current * BACKOFF
+                : this.algorithm.next(current, recent, baseline, concurrency);
+            final double bounded = Math.max(this.minLimit, Math.min(this.maxLimit, next));
+            if (bounded == current || this.limit.compareAndSet(bits, Double.doubleToRawLongBits(bounded))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the current limit with its fractional part.
+     * @return The limit
+     */
+    private double currentLimit() {
+        return Double.longBitsToDouble(this.limit.get());
+    }
+
+    /**
+     * Computes the next limit after a call that did not fail. Implementations are pure functions of their arguments,
+     * as they may be called repeatedly for the same call.
+     */
+    private interface Algorithm {
+        /**
+         * Computes the next limit.
+         * @param limit The current limit
+         * @param recent The short term latency in nanoseconds, including the call
+         * @param baseline The long term latency in nanoseconds, including the call
+         * @param concurrency The number of calls in flight when the call started, including itself
+         * @return The next limit
+         */
+        double next(double limit, double recent, double baseline, int concurrency);
+    }
+
+    /**
+     * Additive increase, multiplicative decrease.
+     */
+    private static final class Aimd implements Algorithm {
+        /**
+         * Latency above which a call counts as overload, in nanoseconds.
+         */
+        private final long threshold;
+
+        /**
+         * Ctor.
+         * @param threshold Latency above which a call counts as overload, in nanoseconds
+         */
+        Aimd(final long threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override
+        public double next(final double limit, final double recent, final double baseline, final int concurrency) {
+            if (recent > this.threshold) {
+                return limit * BACKOFF;
+            }
+            return concurrency * 2 >= limit ? limit + 1 : limit;
+        }
+    }
+
+    /**
+     * Gradient of long term to short term latency.
+     */
+    private static final class Gradient implements Algorithm {
+        /**
+         * Weight of the computed limit relative to the current limit.
+         */
+        private static final double SMOOTHING = 0.2;
+
+        @Override
+        public double next(final double limit, final double recent, final double baseline, final int concurrency) {
+            final double gradient = Math.max(0.5, Math.min(1, baseline / Math.max(1, recent)));
+            double target = limit * gradient + Math.sqrt(limit);
+            if (concurrency * 2 < limit) {
+                target = Math.min(target, limit);
+            }
+            return limit * (1 - SMOOTHING) + target * SMOOTHING;
+        }
+    }
+
+    /**
+     * Lock-free exponentially weighted moving average stored as the bits of a double.
+     */
+    private static final class Ewma {
+        /**
+         * Ctor.
+         */
+        private Ewma() {}
+
+        /**
+         * Moves an average towards a sample.
+         * @param value The average, negative before the first sample
+         * @param sample The sample
+         * @param decay Weight of the sample
+         * @return The new average
+         */
+        static double update(final AtomicLong value, final double sample, final double decay) {
+            while (true) {
+                final long bits = value.get();
+                final double current = Double.longBitsToDouble(bits);
+                final double next = current < 0 ? sample : current + decay * (sample - current);
+                if (value.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                    return next;
+                }
+            }
+        }
+    }
+}
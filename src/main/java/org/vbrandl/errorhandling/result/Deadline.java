@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A per-request deadline that is propagated through chains of {@link Result} stages. Checking the deadline is a
+ * single {@link System#nanoTime()} comparison. Once the deadline passed, guarded stages are skipped and the chain
+ * short circuits to a preallocated {@link Err} holding the timeout error. Asynchronous stages are bounded by a
+ * {@link TimerWheel} instead of a scheduled task per call, so no thread blocks on the deadline and no
+ * {@code TimeoutException} is thrown.
+ * @param <E> The type of the Err value
+ */
+public final class Deadline<E> {
+    /**
+     * The deadline in {@link System#nanoTime()} time.
+     */
+    private final long deadline;
+
+    /**
+     * The {@link Err} returned once the deadline passed.
+     */
+    private final Err<Object, E> timeout;
+
+    /**
+     * Ctor.
+     * @param deadline The deadline in {@link System#nanoTime()} time
+     * @param timeoutError The error to return once the deadline passed
+     */
+    private Deadline(final long deadline, final E timeoutError) {
+        this.deadline = deadline;
+        this.timeout = new Err<>(timeoutError);
+    }
+
+    /**
+     * Creates a deadline that passes after the given timeout.
+     * @param timeout The time until the deadline passes
+     * @param unit The unit of {@code timeout}
+     * @param timeoutError The error to return once the deadline passed
+     * @param <E> The type of the Err value
+     * @return A new {@code Deadline}
+     */
+    public static <E> Deadline<E> after(final long timeout, final TimeUnit unit, final E timeoutError) {
+        return new Deadline<>(System.nanoTime() + unit.toNanos(timeout), timeoutError);
+    }
+
+    /**
+     * Checks if the deadline passed.
+     * @return {@code true} if the deadline passed
+     */
+    public boolean isExpired() {
+        return System.nanoTime() - this.deadline >= 0;
+    }
+
+    /**
+     * Returns the time left until the deadline passes.
+     * @param unit The unit of the returned value
+     * @return The remaining time or {@code 0} if the deadline passed
+     */
+    public long remaining(final TimeUnit unit) {
+        return unit.convert(Math.max(0, this.deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the {@link Err} that is used once the deadline passed.
+     * @param <T> The type of the Ok value
+     * @return The timeout {@link Err}
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T, E> timeout() {
+        return (Result<T, E>) this.timeout;
+    }
+
+    /**
+     * Returns the given result or the timeout {@link Err} if the deadline passed.
+     * @param result The result to check
+     * @param <T> The type of the Ok value
+     * @return {@code result} or the timeout {@link Err}
+     */
+    public <T> Result<T, E> check(final Result<T, E> result) {
+        return isExpired() ? timeout() : result;
+    }
+
+    /**
+     * Like {@link Result#andThen(Function)} but skips {@code mapFn} once the deadline passed.
+     * @param result The result to continue
+     * @param mapFn The next stage
+     * @param <T> The type of the Ok value
+     * @param <U> The type of the new Ok value
+     * @return The result of the stage, the unchanged {@link Err} or the timeout {@link Err}
+     */
+    public <T, U> Result<U, E> andThen(final Result<T, E> result, final Function<? super T, Result<U, E>> mapFn) {
+        if (result.isErr()) {
+            return result.andThen(mapFn);
+        }
+        return isExpired() ? timeout() : result.andThen(mapFn);
+    }
+
+    /**
+     * Wraps a stage so it is skipped once the deadline passed.
+     * @param mapFn The stage to wrap
+     * @param <T> The type of the input value
+     * @param <U> The type of the Ok value
+     * @return A function returning the result of {@code mapFn} or the timeout {@link Err}
+     */
+    public <T, U> Function<T, Result<U, E>> guard(final Function<? super T, Result<U, E>> mapFn) {
+        return value -> isExpired() ? timeout() : mapFn.apply(value);
+    }
+
+    /**
+     * Bounds an asynchronous result by this deadline using the {@link TimerWheel#shared() shared timer wheel}.
+     * @param future The asynchronous result
+     * @param <T> The type of the Ok value
+     * @return A future that completes like {@code future} or with the timeout {@link Err} once the deadline passed
+     */
+    public <T> CompletableFuture<Result<T, E>> within(final CompletableFuture<Result<T, E>> future) {
+        return within(future, TimerWheel.shared());
+    }
+
+    /**
+     * Bounds an asynchronous result by this deadline.
+     * @param future The asynchronous result
+     * @param wheel The wheel that enforces the deadline
+     * @param <T> The type of the Ok value
+     * @return A future that completes like {@code future} or with the timeout {@link Err} once the deadline passed
+     */
+    public <T> CompletableFuture<Result<T, E>> within(final CompletableFuture<Result<T, E>> future,
+                                                      final TimerWheel wheel) {
+        if (future.isDone()) {
+            return future;
+        }
+        final long remaining = this.deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return CompletableFuture.completedFuture(timeout());
+        }
+        final CompletableFuture<Result<T, E>> bounded = new CompletableFuture<>();
+        final TimerWheel.Timeout timer = wheel.schedule(() -> bounded.complete(timeout()), remaining,
+                                                        TimeUnit.NANOSECONDS);
+        future.whenComplete((res, ex) -> {
+            timer.cancel();
+            if (ex == null) {
+                bounded.complete(res);
+            } else {
+                bounded.completeExceptionally(ex);
+            }
+        });
+        return bounded;
+    }
+}
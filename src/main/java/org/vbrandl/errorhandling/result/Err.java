@@ -41,10 +41,16 @@
 
 package org.vbrandl.errorhandling.result;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Wrapper class for erorr values.
@@ -55,12 +61,73 @@ public final class Err<T, E> extends Result<T, E> {
      */
     private final E error;
 
+    /**
+     * The sampled creation site, empty if the creation was not sampled by {@link ErrSampler}.
+     */
+    private final StackTraceElement[] origin;
+
+    /**
+     * The outermost context frame or {@code null}.
+     */
+    private final ErrorContext context;
+
     /**
      * Ctor.
      * @param error The error to be wrapped
      */
     public Err(final E error) {
+        this(error, created(error), null);
+    }
+
+    /**
+     * Ctor.
+     * @param error The error to be wrapped
+     * @param origin The sampled creation site
+     * @param context The outermost context frame or {@code null}
+     */
+    private Err(final E error, final StackTraceElement[] origin, final ErrorContext context) {
         this.error = error;
+        this.origin = origin;
+        this.context = context;
+    }
+
+    /**
+     * Notifies the attached {@link ErrorProfiler} and {@link ErrSampler} of a newly created error.
+     * @param error The error
+     * @return The sampled creation site
+     */
+    private static StackTraceElement[] created(final Object error) {
+        ErrorProfiler.created(error);
+        return ErrSampler.capture(error);
+    }
+
+    /**
+     * Returns the stack frames of the creation of this {@code Err} if it was sampled by {@link ErrSampler}. An
+     * {@code Err} derived by {@link #mapErr(Function)} or {@link #mapErrWith(Object, BiFunction)} keeps the frames of
+     * the original error.
+     * @return The innermost frames, starting at the call site, or an empty list if the creation was not sampled
+     */
+    public List<StackTraceElement> origin() {
+        return Collections.unmodifiableList(Arrays.asList(this.origin));
+    }
+
+    /**
+     * Returns the context attached by {@link Result#context(String)} and its overloads.
+     * @return An {@code Optional} containing the outermost context frame or an empty value if no context was attached
+     */
+    public Optional<ErrorContext> errorContext() {
+        return Optional.ofNullable(this.context);
+    }
+
+    /**
+     * Renders the attached context followed by the wrapped error, e.g.
+     * {@code "loading config: reading /etc/app.conf: permission denied"}.
+     * @return The rendered context chain and error
+     */
+    public String report() {
+        return this.context == null
+            ? String.valueOf(this.error)
+            : this.context.render(this.error);
     }
 
     @Override
@@ -83,6 +150,11 @@ public final class Err<T, E> extends Result<T, E> {
         return Optional.of(error);
     }
 
+    @Override
+    public Stream<T> stream() {
+        return Stream.empty();
+    }
+
     @Override
     public boolean hasValue() {
         return false;
@@ -112,12 +184,59 @@ public final class Err<T, E> extends Result<T, E> {
 
     @Override
     public <U> Result<T, U> mapErr(final Function<? super E, U> mapFn) {
-        return orElse(mapFn.andThen(error -> new Err<>(error)));
+        final U mapped = mapFn.apply(this.error);
+        return new Err<>(mapped, this.origin, this.context);
     }
 
     @Override
     public <U> Result<T, U> orElse(final Function<? super E, Result<T, U>> mapFn) {
-        return mapFn.apply(getErr());
+        return mapFn.apply(this.error);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<U, E> mapWith(final C ctx, final BiFunction<? super C, ? super T, U> mapFn) {
+        return (Result<U, E>)this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<U, E> andThenWith(final C ctx,
+                                           final BiFunction<? super C, ? super T, Result<U, E>> mapFn) {
+        return (Result<U, E>)this;
+    }
+
+    @Override
+    public <C, U> Result<T, U> mapErrWith(final C ctx, final BiFunction<? super C, ? super E, U> mapFn) {
+        final U mapped = mapFn.apply(ctx, this.error);
+        return new Err<>(mapped, this.origin, this.context);
+    }
+
+    @Override
+    public <C, U> Result<T, U> orElseWith(final C ctx,
+                                          final BiFunction<? super C, ? super E, Result<T, U>> mapFn) {
+        return mapFn.apply(ctx, this.error);
+    }
+
+    @Override
+    public Result<T, E> context(final String message) {
+        return new Err<>(this.error, this.origin, new ErrorContext(message, null, this.context));
+    }
+
+    @Override
+    public Result<T, E> context(final Supplier<String> message) {
+        return new Err<>(this.error, this.origin, new ErrorContext(message, null, this.context));
+    }
+
+    @Override
+    public Result<T, E> context(final String template, final Object arg) {
+        return new Err<>(this.error, this.origin, new ErrorContext(template, new Object[] {arg}, this.context));
+    }
+
+    @Override
+    public Result<T, E> context(final String template, final Object arg1, final Object arg2) {
+        return new Err<>(this.error, this.origin,
+                         new ErrorContext(template, new Object[] {arg1, arg2}, this.context));
     }
 
     @Override
@@ -161,8 +280,8 @@ public final class Err<T, E> extends Result<T, E> {
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 97 * hash + (this.error.hashCode() ^ this.error.hashCode());
-        return hash;
+        hash = 97 * hash + Objects.hashCode(this.error);
+        return ~hash;
     }
 
     @Override
@@ -178,6 +297,6 @@ public final class Err<T, E> extends Result<T, E> {
             return false;
         }
         final Err<T, E> other = (Err<T, E>) obj;
-        return this.error.equals(other.error);
+        return Objects.equals(this.error, other.error);
     }
 }
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.security.CodeSource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional sampling of the call sites that create {@link Err} instances. When sampling is enabled, one in {@code n}
+ * errors, and every error of a chosen type, records the stack frames of its creation, limited to a maximum depth.
+ * Frames of this library are skipped, so the frames start at the code that called into the library. They are
+ * available from {@link Err#origin()} and are aggregated per call site into {@link #report()}.
+ * Sampling is disabled by default, in which case creating an {@link Err} only costs a single volatile read.
+ */
+public final class ErrSampler {
+    /**
+     * Default number of frames kept per sample.
+     */
+    private static final int DEFAULT_MAX_DEPTH = 8;
+
+    /**
+     * Maximum number of distinct call sites kept in the report.
+     */
+    private static final int MAX_SITES = 1024;
+
+    /**
+     * Prefix of the names of the classes in this package.
+     */
+    private static final String PACKAGE = ErrSampler.class.getName().substring(
+        0, ErrSampler.class.getName().lastIndexOf('.') + 1);
+
+    /**
+     * Whether a class of this package belongs to the library, whose frames are skipped, by class name.
+     */
+    private static final Map<String, Boolean> INTERNAL = new ConcurrentHashMap<>();
+
+    /**
+     * Empty origin of errors that were not sampled.
+     */
+    private static final StackTraceElement[] NOT_SAMPLED = new StackTraceElement[0];
+
+    /**
+     * Number of samples per call site.
+     */
+    private static final Map<StackTraceElement, LongAdder> SITES = new ConcurrentHashMap<>();
+
+    /**
+     * Number of samples that did not fit into the report.
+     */
+    private static final LongAdder OVERFLOW = new LongAdder();
+
+    /**
+     * The current configuration.
+     */
+    private static volatile Config config = new Config(0, new Class<?>[0], DEFAULT_MAX_DEPTH);
+
+    /**
+     * Ctor.
+     */
+    private ErrSampler() {}
+
+    /**
+     * Samples one in {@code n} created errors.
+     * @param n The sampling interval, {@code 1} samples every error, {@code 0} disables interval sampling
+     */
+    public static synchronized void sampleEvery(final int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative");
+        }
+        config = new Config(n, config.types, config.maxDepth);
+    }
+
+    /**
+     * Samples every created error that is an instance of the given type.
+     * @param type The error type
+     */
+    public static synchronized void sampleType(final Class<?> type) {
+        final Class<?>[] types = Arrays.copyOf(config.types, config.types.length + 1);
+        types[config.types.length] = type;
+        config = new Config(config.every, types, config.maxDepth);
+    }
+
+    /**
+     * Sets the maximum number of frames kept per sample.
+     * @param maxDepth The maximum number of frames
+     */
+    public static synchronized void maxDepth(final int maxDepth) {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth must be positive");
+        }
+        config = new Config(config.every, config.types, maxDepth);
+    }
+
+    /**
+     * Disables sampling and clears the report.
+     */
+    public static synchronized void reset() {
+        config = new Config(0, new Class<?>[0], DEFAULT_MAX_DEPTH);
+        SITES.clear();
+        OVERFLOW.reset();
+    }
+
+    /**
+     * Returns the number of samples per call site, the call site being the first frame outside this library.
+     * @return An immutable snapshot of the sample counts
+     */
+    public static Map<StackTraceElement, Long> report() {
+        final Map<StackTraceElement, Long> snapshot = new HashMap<>();
+        SITES.forEach((site, count) -> snapshot.put(site, count.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns the number of samples that were not added to the report because it already contained the maximum
+     * number of distinct call sites.
+     * @return The number of dropped samples
+     */
+    public static long overflow() {
+        return OVERFLOW.sum();
+    }
+
+    /**
+     * Captures the creation site of an error if it is sampled.
+     * @param error The error that is wrapped
+     * @return The captured frames or an empty array if the error is not sampled
+     */
+    static StackTraceElement[] capture(final Object error) {
+        final Config current = config;
+        if (!current.enabled || !current.sampled(error)) {
+            return NOT_SAMPLED;
+        }
+        final StackTraceElement[] stack = new Throwable().getStackTrace();
+        int start = 0;
+        while (start < stack.length && internal(stack[start].getClassName())) {
+            start++;
+        }
+        final StackTraceElement[] origin = Arrays.copyOfRange(stack, start,
+                                                              Math.min(stack.length, start + current.maxDepth));
+        if (origin.length > 0) {
+            count(origin[0]);
+        }
+        return origin;
+    }
+
+    /**
+     * Checks whether a frame belongs to this library. Classes of this package count as part of the library if they
+     * were loaded from the same location as this class, so callers in the same package, e.g. tests, are not skipped.
+     * @param className The name of the class of the frame
+     * @return {@code true} if the frame is skipped
+     */
+    private static boolean internal(final String className) {
+        if (!className.startsWith(PACKAGE)) {
+            return false;
+        }
+        return INTERNAL.computeIfAbsent(className, ErrSampler::loadedWithLibrary);
+    }
+
+    /**
+     * Checks whether a class of this package was loaded from the same location as this class.
+     * @param className The name of the class
+     * @return {@code true} if the class belongs to the library or cannot be loaded
+     */
+    private static boolean loadedWithLibrary(final String className) {
+        try {
+            final Class<?> type = Class.forName(className, false, ErrSampler.class.getClassLoader());
+            return Objects.equals(location(type), location(ErrSampler.class));
+        } catch (final ClassNotFoundException | SecurityException ex) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the location a class was loaded from.
+     * @param type The class
+     * @return The location or {@code null} if unknown
+     */
+    private static String location(final Class<?> type) {
+        final CodeSource source = type.getProtectionDomain().getCodeSource();
+        return source == null ? null : String.valueOf(source.getLocation());
+    }
+
+    /**
+     * Counts a sample for a call site.
+     * @param site The call site
+     */
+    private static void count(final StackTraceElement site) {
+        LongAdder counter = SITES.get(site);
+        if (counter == null) {
+            if (SITES.size() >= MAX_SITES) {
+                OVERFLOW.increment();
+                return;
+            }
+            counter = SITES.computeIfAbsent(site, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Immutable sampling configuration.
+     */
+    private static final class Config {
+        /**
+         * The sampling interval or {@code 0}.
+         */
+        private final int every;
+
+        /**
+         * The error types that are always sampled.
+         */
+        private final Class<?>[] types;
+
+        /**
+         * The maximum number of frames kept per sample.
+         */
+        private final int maxDepth;
+
+        /**
+         * Whether any sampling is enabled.
+         */
+        private final boolean enabled;
+
+        /**
+         * Ctor.
+         * @param every The sampling interval or {@code 0}
+         * @param types The error types that are always sampled
+         * @param maxDepth The maximum number of frames kept per sample
+         */
+        Config(final int every, final Class<?>[] types, final int maxDepth) {
+            this.every = every;
+            this.types = types;
+            this.maxDepth = maxDepth;
+            this.enabled = every > 0 || types.length > 0;
+        }
+
+        /**
+         * Decides whether an error is sampled.
+         * @param error The error
+         * @return {@code true} if the creation of the error should be captured
+         */
+        boolean sampled(final Object error) {
+            for (final Class<?> type : this.types) {
+                if (type.isInstance(error)) {
+                    return true;
+                }
+            }
+            return this.every > 0 && ThreadLocalRandom.current().nextInt(this.every) == 0;
+        }
+    }
+}
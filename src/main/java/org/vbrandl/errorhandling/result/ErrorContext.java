@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * A frame of context attached to an {@link Err} while it propagates through the layers of an application, see
+ * {@link Result#context(String)}. Frames form an immutable linked chain from the outermost to the innermost context.
+ * A frame only stores its template and arguments or a supplier, the message is rendered when the error is reported.
+ */
+public final class ErrorContext {
+    /**
+     * Separator between the rendered frames of a chain.
+     */
+    private static final String SEPARATOR = ": ";
+
+    /**
+     * A fixed message, a {@link String#format(String, Object...)} template or a {@code Supplier<String>}.
+     */
+    private final Object message;
+
+    /**
+     * The arguments for the template or {@code null}.
+     */
+    private final Object[] args;
+
+    /**
+     * The next, inner frame or {@code null}.
+     */
+    private final ErrorContext next;
+
+    /**
+     * Ctor.
+     * @param message A fixed message, a template or a {@code Supplier<String>}
+     * @param args The arguments for the template or {@code null}
+     * @param next The next, inner frame or {@code null}
+     */
+    ErrorContext(final Object message, final Object[] args, final ErrorContext next) {
+        this.message = message;
+        this.args = args;
+        this.next = next;
+    }
+
+    /**
+     * Renders the message of this frame.
+     * @return The message
+     */
+    public String message() {
+        if (this.message instanceof Supplier) {
+            return String.valueOf(((Supplier<?>) this.message).get());
+        }
+        if (this.args == null) {
+            return String.valueOf(this.message);
+        }
+        return String.format(Locale.ROOT, (String) this.message, this.args);
+    }
+
+    /**
+     * Returns the next, inner frame.
+     * @return The next frame or {@code null} if this is the innermost frame
+     */
+    public ErrorContext next() {
+        return this.next;
+    }
+
+    /**
+     * Renders the messages of this frame and all inner frames.
+     * @return The messages from the outermost to the innermost frame
+     */
+    public List<String> messages() {
+        final List<String> messages = new ArrayList<>();
+        for (ErrorContext frame = this; frame != null; frame = frame.next) {
+            messages.add(frame.message());
+        }
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * Renders this chain followed by an error.
+     * @param error The error the chain is attached to
+     * @return The messages from the outermost to the innermost frame and the error, separated by {@code ": "}
+     */
+    String render(final Object error) {
+        final StringBuilder builder = new StringBuilder();
+        for (ErrorContext frame = this; frame != null; frame = frame.next) {
+            builder.append(frame.message()).append(SEPARATOR);
+        }
+        return builder.append(error).toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(SEPARATOR, messages());
+    }
+}
@@ -0,0 +1,453 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed memory profile of the most frequent errors. Every recorded error is counted in a count-min sketch, which
+ * overestimates a count by at most {@code epsilon} times the total number of errors with probability
+ * {@code 1 - delta}, and the errors with the highest estimates are kept as heavy hitters. Memory is bounded by the
+ * sketch size and {@code k}, independent of the number of distinct errors.
+ * <p>
+ * Errors can be recorded explicitly or, after {@link #attach(Class, ErrorProfiler)}, for every {@link Err} that is
+ * created. Recording is lock-free unless an error that is not yet tracked becomes a heavy hitter. The counts of the
+ * heavy hitters are read from the sketch. Errors are identified by {@code equals} and {@code hashCode}.
+ * @param <E> The type of the errors
+ */
+public final class ErrorProfiler<E> {
+    /**
+     * The profiler that receives every created error, {@code null} if none is attached.
+     */
+    private static volatile Attachment attached;
+
+    /**
+     * Stands in for a {@code null} error in {@link #tracked}.
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * Number of heavy hitters to keep.
+     */
+    private final int k;
+
+    /**
+     * Number of counters per row, a power of two.
+     */
+    private final int width;
+
+    /**
+     * Number of rows.
+     */
+    private final int depth;
+
+    /**
+     * The counters of all rows.
+     */
+    private final AtomicLongArray counters;
+
+    /**
+     * Number of recorded errors.
+     */
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * The heavy hitters, {@code null} replaced by {@link #NULL}. Only modified while holding {@link #heap}.
+     */
+    private final Set<Object> tracked = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The heavy hitters ordered by their estimate when they were last inspected, guarded by itself. Estimates only
+     * grow, so a stale head is refreshed before it is evicted.
+     */
+    private final PriorityQueue<Candidate<E>> heap;
+
+    /**
+     * Smallest estimate of the heavy hitters once {@code k} are known, {@code 0} before.
+     */
+    private volatile long threshold;
+
+    /**
+     * Ctor.
+     * @param k Number of most frequent errors to keep
+     * @param epsilon Maximum overestimation relative to the total number of errors, in {@code (0, 1)}
+     * @param delta Probability of exceeding the overestimation, in {@code (0, 1)}
+     */
+    public ErrorProfiler(final int k, final double epsilon, final double delta) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        if (epsilon <= 0 || epsilon >= 1) {
+            throw new IllegalArgumentException("epsilon must be in (0, 1)");
+        }
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("delta must be in (0, 1)");
+        }
+        final int minWidth = (int) Math.ceil(Math.E / epsilon);
+        this.k = k;
+        this.width = Math.max(2, Integer.highestOneBit(minWidth - 1) << 1);
+        this.depth = (int) Math.ceil(Math.log(1 / delta));
+        this.counters = new AtomicLongArray(this.width * this.depth);
+        this.heap = new PriorityQueue<>(k, Comparator.comparingLong((Candidate<E> candidate) -> candidate.count));
+    }
+
+    /**
+     * Attaches a profiler that records every {@link Err} created from now on whose error is an instance of
+     * {@code type}. Errors derived from an existing {@link Err} by {@link Result#mapErr} or {@link Result#mapErrWith}
+     * are not recorded again. Replaces a previously attached profiler.
+     * @param type The type of the errors to record
+     * @param profiler The profiler
+     * @param <E> The type of the errors
+     */
+    public static <E> void attach(final Class<E> type, final ErrorProfiler<? super E> profiler) {
+        attached = new Attachment(type, profiler);
+    }
+
+    /**
+     * Detaches the attached profiler.
+     */
+    public static void detach() {
+        attached = null;
+    }
+
+    /**
+     * Records a created error with the attached profiler, if any.
+     * @param error The error of the created {@link Err}
+     */
+    @SuppressWarnings("unchecked")
+    static void created(final Object error) {
+        final Attachment current = attached;
+        if (current != null && current.type.isInstance(error)) {
+            ((ErrorProfiler<Object>) current.profiler).record(error);
+        }
+    }
+
+    /**
+     * Records an error.
+     * @param error The error
+     */
+    public void record(final E error) {
+        this.total.increment();
+        final int hash = mix(error == null ? 0 : error.hashCode());
+        final int step = mix(hash ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++) {
+            estimate = Math.min(estimate, this.counters.incrementAndGet(index(row, hash, step)));
+        }
+        if (estimate > this.threshold && !this.tracked.contains(mask(error))) {
+            offer(error, estimate);
+        }
+    }
+
+    /**
+     * Records the error of an {@link Err}, an {@link Ok} is ignored.
+     * @param result The result
+     */
+    public void record(final Result<?, ? extends E> result) {
+        if (result.isErr()) {
+            record(result.getErr());
+        }
+    }
+
+    /**
+     * Returns the estimated number of times an error was recorded.
+     * @param error The error
+     * @return The estimate, never lower than the actual count
+     */
+    public long estimate(final E error) {
+        final int hash = mix(error == null ? 0 : error.hashCode());
+        final int step = mix(hash ^ 0x9E3779B9) | 1;
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++) {
+            estimate = Math.min(estimate, this.counters.get(index(row, hash, step)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Returns the number of recorded errors.
+     * @return The total count
+     */
+    public long total() {
+        return this.total.sum();
+    }
+
+    /**
+     * Returns the maximum overestimation of a count that holds with probability {@code 1 - delta}.
+     * @return The error bound for the current total
+     */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / this.width * total());
+    }
+
+    /**
+     * Returns the most frequent errors.
+     * @return Up to {@code k} errors, ordered by descending estimate
+     */
+    @SuppressWarnings("unchecked")
+    public List<Entry<E>> top() {
+        final long sum = total();
+        final List<Entry<E>> entries = new ArrayList<>(this.k);
+        for (final Object key : this.tracked) {
+            final E error = key == NULL ? null : (E) key;
+            entries.add(new Entry<>(error, estimate(error), sum));
+        }
+        entries.sort(Comparator.comparingLong((Entry<E> entry) -> entry.count).reversed());
+        return entries;
+    }
+
+    /**
+     * Clears all counts.
+     */
+    public void reset() {
+        synchronized (this.heap) {
+            for (int i = 0; i < this.counters.length(); i++) {
+                this.counters.set(i, 0);
+            }
+            this.total.reset();
+            this.heap.clear();
+            this.tracked.clear();
+            this.threshold = 0;
+        }
+    }
+
+    /**
+     * Adds an error that is not tracked yet to the heavy hitters, evicting the one with the smallest estimate if
+     * {@code k} are tracked already.
+     * @param error The error
+     * @param estimate The estimated count of {@code error}
+     */
+    private void offer(final E error, final long estimate) {
+        synchronized (this.heap) {
+            if (this.tracked.contains(mask(error))) {
+                return;
+            }
+            if (this.heap.size() >= this.k) {
+                final Candidate<E> min = refreshMin();
+                if (estimate <= min.count) {
+                    this.threshold = min.count;
+                    return;
+                }
+                this.heap.poll();
+                this.tracked.remove(mask(min.error));
+            }
+            this.heap.add(new Candidate<>(error, estimate));
+            this.tracked.add(mask(error));
+            if (this.heap.size() >= this.k) {
+                this.threshold = refreshMin().count;
+            }
+        }
+    }
+
+    /**
+     * Refreshes the estimates at the head of the heap until the head is up to date, inspecting each heavy hitter at
+     * most once. Must be called while holding {@link #heap}.
+     * @return The heavy hitter with the smallest estimate
+     */
+    private Candidate<E> refreshMin() {
+        for (int i = this.heap.size(); i > 0; i--) {
+            final Candidate<E> min = this.heap.peek();
+            final long current = estimate(min.error);
+            if (current <= min.count) {
+                return min;
+            }
+            this.heap.poll();
+            this.heap.add(new Candidate<>(min.error, current));
+        }
+        return this.heap.peek();
+    }
+
+    /**
+     * Replaces a {@code null} error by {@link #NULL}.
+     * @param error The error
+     * @return The key of the error in {@link #tracked}
+     */
+    private static Object mask(final Object error) {
+        return error == null ? NULL : error;
+    }
+
+    /**
+     * Computes the counter of an error in a row by double hashing.
+     * @param row The row
+     * @param hash The mixed hash code of the error
+     * @param step The second hash of the error
+     * @return The index of the counter
+     */
+    private int index(final int row, final int hash, final int step) {
+        return row * this.width + ((hash + row * step) & (this.width - 1));
+    }
+
+    /**
+     * Spreads the bits of a hash code (the finalizer of MurmurHash3).
+     * @param hash The hash code
+     * @return The mixed hash
+     */
+    private static int mix(final int hash) {
+        int h = hash;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * An error and its estimated frequency.
+     * @param <E> The type of the error
+     */
+    public static final class Entry<E> {
+        /**
+         * The error.
+         */
+        private final E error;
+
+        /**
+         * The estimated count.
+         */
+        private final long count;
+
+        /**
+         * The total number of recorded errors.
+         */
+        private final long total;
+
+        /**
+         * Ctor.
+         * @param error The error
+         * @param count The estimated count
+         * @param total The total number of recorded errors
+         */
+        Entry(final E error, final long count, final long total) {
+            this.error = error;
+            this.count = count;
+            this.total = total;
+        }
+
+        /**
+         * Returns the error.
+         * @return The error
+         */
+        public E error() {
+            return this.error;
+        }
+
+        /**
+         * Returns the estimated number of times the error was recorded.
+         * @return The estimated count
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Returns the estimated share of the error in all recorded errors.
+         * @return The share in {@code [0, 1]}
+         */
+        public double rate() {
+            return this.total == 0 ? 0 : Math.min(1, (double) this.count / this.total);
+        }
+
+        @Override
+        public String toString() {
+            return this.error + "=" + this.count;
+        }
+    }
+
+    /**
+     * A heavy hitter and its estimate at the time it was last inspected.
+     * @param <E> The type of the error
+     */
+    private static final class Candidate<E> {
+        /**
+         * The error.
+         */
+        private final E error;
+
+        /**
+         * The estimated count.
+         */
+        private final long count;
+
+        /**
+         * Ctor.
+         * @param error The error
+         * @param count The estimated count
+         */
+        Candidate(final E error, final long count) {
+            this.error = error;
+            this.count = count;
+        }
+    }
+
+    /**
+     * A profiler attached to the creation of errors.
+     */
+    private static final class Attachment {
+        /**
+         * The type of the recorded errors.
+         */
+        private final Class<?> type;
+
+        /**
+         * The profiler.
+         */
+        private final ErrorProfiler<?> profiler;
+
+        /**
+         * Ctor.
+         * @param type The type of the recorded errors
+         * @param profiler The profiler
+         */
+        Attachment(final Class<?> type, final ErrorProfiler<?> profiler) {
+            this.type = type;
+            this.profiler = profiler;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Asynchronous, rate limited sink for errors, e.g. {@code result.ifErr(reporter)}. Accepting an error only inserts it
+ * into a bounded lock-free {@link RingBuffer}; when the buffer is full the error is dropped and counted instead of
+ * blocking the caller. A background thread drains the buffer and writes the first error of every key per window to
+ * the output. Further errors with the same key in that window are suppressed and summarized as
+ * {@code "<key>: N more suppressed"} once the window ends. At most {@value #MAX_WINDOWS} windows are open at once,
+ * the oldest one is closed early to make room for a new key. Dropped errors are summarized as
+ * {@code "N errors dropped"}. If the key function throws, the error is deduplicated by its class, and if
+ * {@code toString} throws, the error is written in the format of {@link Object#toString()}.
+ * @param <E> The type of the errors
+ */
+public final class ErrorReporter<E> implements Consumer<E>, AutoCloseable {
+    /**
+     * Maximum number of errors handled per drain.
+     */
+    private static final int BATCH_SIZE = 256;
+
+    /**
+     * Time the drain thread parks when the buffer is empty.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * Maximum number of open windows.
+     */
+    private static final int MAX_WINDOWS = 4096;
+
+    /**
+     * Pending errors.
+     */
+    private final RingBuffer<E> buffer;
+
+    /**
+     * Receives the formatted reports.
+     */
+    private final Consumer<? super String> output;
+
+    /**
+     * Computes the deduplication key of an error.
+     */
+    private final Function<? super E, ?> key;
+
+    /**
+     * Deduplication window in nanoseconds.
+     */
+    private final long window;
+
+    /**
+     * Number of errors dropped because the buffer was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Open windows per key in the order they were opened, only accessed by the drain thread.
+     */
+    private final Map<Object, Window> windows = new LinkedHashMap<>();
+
+    /**
+     * The drain thread.
+     */
+    private final Thread drainer;
+
+    /**
+     * Whether the reporter is still running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Ctor. Errors are deduplicated by equality.
+     * @param output Receives the formatted reports
+     * @param capacity Capacity of the buffer, rounded up to a power of two
+     * @param window Deduplication window
+     * @param unit Unit of {@code window}
+     */
+    public ErrorReporter(final Consumer<? super String> output, final int capacity, final long window,
+                         final TimeUnit unit) {
+        this(output, Function.identity(), capacity, window, unit);
+    }
+
+    /**
+     * Ctor.
+     * @param output Receives the formatted reports
+     * @param key Computes the deduplication key of an error
+     * @param capacity Capacity of the buffer, rounded up to a power of two
+     * @param window Deduplication window
+     * @param unit Unit of {@code window}
+     */
+    public ErrorReporter(final Consumer<? super String> output, final Function<? super E, ?> key,
+                         final int capacity, final long window, final TimeUnit unit) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.output = output;
+        this.key = key;
+        this.window = unit.toNanos(window);
+        this.drainer = new Thread(this::drain, "error-reporter");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Reports an error without blocking. The error is dropped if the buffer is full or the reporter is closed.
+     * @param error The error, {@code null} is ignored
+     */
+    @Override
+    public void accept(final E error) {
+        if (error == null) {
+            return;
+        }
+        if (!this.running || !this.buffer.offer(error)) {
+            this.dropped.increment();
+        }
+    }
+
+    /**
+     * Reports the error of an {@link Err}, an {@link Ok} is ignored.
+     * @param result The result
+     */
+    public void report(final Result<?, ? extends E> result) {
+        if (result.isErr()) {
+            accept(result.getErr());
+        }
+    }
+
+    /**
+     * Returns the number of errors that were dropped since the last summary.
+     * @return The number of dropped errors
+     */
+    public long dropped() {
+        return this.dropped.sum();
+    }
+
+    /**
+     * Stops the drain thread after writing the pending errors and the summaries of all open windows.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.drainer);
+        try {
+            this.drainer.join();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The loop of the drain thread.
+     */
+    private void drain() {
+        while (this.running) {
+            final int drained = this.buffer.drain(this::handle, BATCH_SIZE);
+            expire(System.nanoTime(), false);
+            if (drained == 0) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+        while (this.buffer.size() > 0) {
+            this.buffer.drain(this::handle, BATCH_SIZE);
+        }
+        expire(System.nanoTime(), true);
+    }
+
+    /**
+     * Writes or suppresses a single error.
+     * @param error The error
+     */
+    private void handle(final E error) {
+        final long now = System.nanoTime();
+        final Object id = key(error);
+        final Window open = this.windows.get(id);
+        if (open != null && now - open.start < this.window) {
+            open.suppressed++;
+            return;
+        }
+        if (open != null) {
+            summarize(id, open);
+            this.windows.remove(id);
+        } else if (this.windows.size() >= MAX_WINDOWS) {
+            final Iterator<Map.Entry<Object, Window>> eldest = this.windows.entrySet().iterator();
+            final Map.Entry<Object, Window> entry = eldest.next();
+            summarize(entry.getKey(), entry.getValue());
+            eldest.remove();
+        }
+        this.windows.put(id, new Window(now));
+        write(render(error));
+    }
+
+    /**
+     * Computes the deduplication key of an error, falling back to the class of the error if the key function fails.
+     * @param error The error
+     * @return The key
+     */
+    private Object key(final E error) {
+        try {
+            return this.key.apply(error);
+        } catch (final RuntimeException ex) {
+            return error.getClass();
+        }
+    }
+
+    /**
+     * Closes elapsed windows and writes their summaries. Windows are ordered by their start, so only the elapsed
+     * windows and the first open one are visited.
+     * @param now The current time
+     * @param all Whether to close all windows
+     */
+    private void expire(final long now, final boolean all) {
+        final Iterator<Map.Entry<Object, Window>> iter = this.windows.entrySet().iterator();
+        while (iter.hasNext()) {
+            final Map.Entry<Object, Window> entry = iter.next();
+            if (!all && now - entry.getValue().start < this.window) {
+                break;
+            }
+            summarize(entry.getKey(), entry.getValue());
+            iter.remove();
+        }
+        final long lost = this.dropped.sumThenReset();
+        if (lost > 0) {
+            write(lost + " errors dropped");
+        }
+    }
+
+    /**
+     * Writes the summary of a window if errors were suppressed.
+     * @param id The key of the window
+     * @param closed The window
+     */
+    private void summarize(final Object id, final Window closed) {
+        if (closed.suppressed > 0) {
+            write(render(id) + ": " + closed.suppressed + " more suppressed");
+        }
+    }
+
+    /**
+     * Converts an error or key to a string, falling back to the format of {@link Object#toString()} if its
+     * {@code toString} fails.
+     * @param obj The error or key
+     * @return The string
+     */
+    private static String render(final Object obj) {
+        try {
+            return String.valueOf(obj);
+        } catch (final RuntimeException ex) {
+            return obj.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(obj));
+        }
+    }
+
+    /**
+     * Writes a report, failures of the output are ignored.
+     * @param report The report
+     */
+    private void write(final String report) {
+        try {
+            this.output.accept(report);
+        } catch (final RuntimeException ex) {
+            // a failing output must not stop the drain thread
+        }
+    }
+
+    /**
+     * Deduplication window of a key.
+     */
+    private static final class Window {
+        /**
+         * Start of the window.
+         */
+        private final long start;
+
+        /**
+         * Number of suppressed errors.
+         */
+        private long suppressed;
+
+        /**
+         * Ctor.
+         * @param start Start of the window
+         */
+        Window(final long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Tries a list of sources until one returns an {@link Ok}, like a chain of {@link Result#orElse} calls, but orders
+ * the attempts by the observed behaviour of the sources. Every source keeps an exponentially decaying success rate
+ * and latency, updated lock-free, and sources are tried in descending order of success rate per latency, which
+ * minimizes the expected time to the first {@link Ok}. A source that was never tried is assumed to be as slow as the
+ * slowest known source. With the exploration rate a randomly chosen other source is tried first, so a source that
+ * recovered is noticed again.
+ * <p>
+ * Sources are evaluated lazily, the result is the first {@link Ok} or the {@link Err} of the last attempted source.
+ * Sources with equal scores keep their declared order.
+ * @param <T> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class FallbackChain<T, E> {
+    /**
+     * Default exploration rate.
+     */
+    private static final double DEFAULT_EXPLORATION = 0.05;
+
+    /**
+     * Default weight of a new sample in the decaying statistics.
+     */
+    private static final double DEFAULT_DECAY = 0.1;
+
+    /**
+     * Lower bound of the latency used for scoring, in nanoseconds.
+     */
+    private static final double MIN_LATENCY = 1000;
+
+    /**
+     * The sources in declared order.
+     */
+    private final List<Supplier<? extends Result<T, E>>> sources;
+
+    /**
+     * Statistics of every source.
+     */
+    private final List<Stats> stats;
+
+    /**
+     * Probability of trying a random other source first.
+     */
+    private final double exploration;
+
+    /**
+     * Weight of a new sample in the decaying statistics.
+     */
+    private final double decay;
+
+    /**
+     * Ctor.
+     * @param sources The sources in initial order
+     * @param exploration Probability of trying a random other source first, in {@code [0, 1]}
+     * @param decay Weight of a new sample in the decaying statistics, in {@code (0, 1]}
+     */
+    public FallbackChain(final List<? extends Supplier<? extends Result<T, E>>> sources, final double exploration,
+                         final double decay) {
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("sources must not be empty");
+        }
+        if (exploration < 0 || exploration > 1) {
+            throw new IllegalArgumentException("exploration must be in [0, 1]");
+        }
+        if (decay <= 0 || decay > 1) {
+            throw new IllegalArgumentException("decay must be in (0, 1]");
+        }
+        this.sources = Collections.unmodifiableList(new ArrayList<>(sources));
+        final List<Stats> all = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            all.add(new Stats());
+        }
+        this.stats = Collections.unmodifiableList(all);
+        this.exploration = exploration;
+        this.decay = decay;
+    }
+
+    /**
+     * Creates a chain with an exploration rate of 5% and a decay of 0.1.
+     * @param sources The sources in initial order
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new chain
+     */
+    public static <T, E> FallbackChain<T, E> of(final List<? extends Supplier<? extends Result<T, E>>> sources) {
+        return new FallbackChain<>(sources, DEFAULT_EXPLORATION, DEFAULT_DECAY);
+    }
+
+    /**
+     * Tries the sources in adaptive order.
+     * @return The first {@link Ok} or the {@link Err} of the last attempted source
+     */
+    public Result<T, E> get() {
+        final int[] order = order(ThreadLocalRandom.current().nextDouble() < this.exploration);
+        Result<T, E> result = null;
+        for (final int index : order) {
+            result = attempt(index);
+            if (result.isOk()) {
+                return result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the order in which the sources are currently tried, without exploration.
+     * @return The indices of the sources in declared order
+     */
+    public List<Integer> order() {
+        final List<Integer> order = new ArrayList<>(this.sources.size());
+        for (final int index : order(false)) {
+            order.add(index);
+        }
+        return order;
+    }
+
+    /**
+     * Returns the decaying success rate of a source.
+     * @param index The index of the source in declared order
+     * @return The success rate in {@code [0, 1]}
+     */
+    public double successRate(final int index) {
+        return this.stats.get(index).success();
+    }
+
+    /**
+     * Runs a source and records its outcome.
+     * @param index The index of the source
+     * @return The result of the source
+     */
+    private Result<T, E> attempt(final int index) {
+        final Stats source = this.stats.get(index);
+        final long start = System.nanoTime();
+        final Result<T, E> result;
+        try {
+            result = this.sources.get(index).get();
+        } catch (final RuntimeException ex) {
+            source.record(false, System.nanoTime() - start, this.decay);
+            throw ex;
+        }
+        source.record(result.isOk(), System.nanoTime() - start, this.decay);
+        return result;
+    }
+
+    /**
+     * Computes the order of the attempts.
+     * @param explore Whether to move a random other source to the front
+     * @return The indices of the sources
+     */
+    private int[] order(final boolean explore) {
+        final int count = this.sources.size();
+        final int[] order = new int[count];
+        final double[] scores = new double[count];
+        double slowest = MIN_LATENCY;
+        for (final Stats source : this.stats) {
+            slowest = Math.max(slowest, source.latency());
+        }
+        for (int i = 0; i < count; i++) {
+            final double score = this.stats.get(i).score(slowest);
+            int j = i;
+            while (j > 0 && scores[j - 1] < score) {
+                scores[j] = scores[j - 1];
+                order[j] = order[j - 1];
+                j--;
+            }
+            scores[j] = score;
+            order[j] = i;
+        }
+        if (explore && count > 1) {
+            final int chosen = 1 + ThreadLocalRandom.current().nextInt(count - 1);
+            final int index = order[chosen];
+            System.arraycopy(order, 0, order, 1, chosen);
+            order[0] = index;
+        }
+        return order;
+    }
+
+    /**
+     * Lock-free decaying statistics of a source, stored as the bits of doubles.
+     */
+    private static final class Stats {
+        /**
+         * The decaying success rate.
+         */
+        private final AtomicLong success = new AtomicLong(Double.doubleToRawLongBits(1));
+
+        /**
+         * The decaying latency in nanoseconds, negative until the first sample.
+         */
+        private final AtomicLong latency = new AtomicLong(Double.doubleToRawLongBits(-1));
+
+        /**
+         * Returns the decaying success rate.
+         * @return The success rate
+         */
+        double success() {
+            return Double.longBitsToDouble(this.success.get());
+        }
+
+        /**
+         * Returns the decaying latency.
+         * @return The latency in nanoseconds, negative if the source was never tried
+         */
+        double latency() {
+            return Double.longBitsToDouble(this.latency.get());
+        }
+
+        /**
+         * Returns the score of the source, the success rate per latency.
+         * @param unknown The latency assumed if the source was never tried
+         * @return The score
+         */
+        double score(final double unknown) {
+            final double observed = latency();
+            return success() / (observed < 0 ? unknown : Math.max(MIN_LATENCY, observed));
+        }
+
+        /**
+         * Records an attempt.
+         * @param ok Whether the attempt returned an {@link Ok}
+         * @param nanos The duration of the attempt
+         * @param decay Weight of the sample
+         */
+        void record(final boolean ok, final long nanos, final double decay) {
+            update(this.success, ok ? 1 : 0, decay);
+            update(this.latency, nanos, decay);
+        }
+
+        /**
+         * Moves a decaying value towards a sample.
+         * @param value The value
+         * @param sample The sample
+         * @param decay Weight of the sample
+         */
+        private static void update(final AtomicLong value, final double sample, final double decay) {
+            while (true) {
+                final long bits = value.get();
+                final double current = Double.longBitsToDouble(bits);
+                final double next = current < 0 ? sample : current + decay * (sample - current);
+                if (value.compareAndSet(bits, Double.doubleToRawLongBits(next))) {
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A stream of values produced by a fallible mapping. The stream emits the unwrapped {@link Ok} values and stops at
+ * the first {@link Err} without pulling further elements from the source. After the stream was consumed, the
+ * {@link Err} that stopped it can be retrieved. For parallel streams, the reported {@link Err} is the first one that
+ * was observed by any thread, not necessarily the first one in encounter order.
+ * @param <T> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class FallibleStream<T, E> {
+    /**
+     * The mapped stream.
+     */
+    private final Stream<T> stream;
+
+    /**
+     * The {@link Err} that stopped the stream.
+     */
+    private final AtomicReference<Result<T, E>> failure;
+
+    /**
+     * Ctor.
+     * @param stream The mapped stream
+     * @param failure The reference the {@link Err} is stored in
+     */
+    private FallibleStream(final Stream<T> stream, final AtomicReference<Result<T, E>> failure) {
+        this.stream = stream;
+        this.failure = failure;
+    }
+
+    /**
+     * Maps a stream through a function returning {@link Result}.
+     * @param source The source stream
+     * @param mapFn The mapping function
+     * @param <S> The type of the source elements
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@code FallibleStream}
+     */
+    public static <S, T, E> FallibleStream<T, E> tryMap(final Stream<S> source,
+                                                        final Function<? super S, Result<T, E>> mapFn) {
+        final AtomicReference<Result<T, E>> failure = new AtomicReference<>();
+        final Stream<T> mapped = StreamSupport
+            .stream(new TryMapSpliterator<>(source.spliterator(), mapFn, failure), source.isParallel())
+            .onClose(source::close);
+        return new FallibleStream<>(mapped, failure);
+    }
+
+    /**
+     * Returns the stream of {@link Ok} values. Like every stream it can only be consumed once.
+     * @return The stream of unwrapped values
+     */
+    public Stream<T> stream() {
+        return this.stream;
+    }
+
+    /**
+     * Checks if the stream was stopped by an {@link Err}.
+     * @return {@code true} if an {@link Err} was encountered
+     */
+    public boolean failed() {
+        return this.failure.get() != null;
+    }
+
+    /**
+     * Returns the error that stopped the stream.
+     * @return An {@code Optional} containing the error or an empty value if no {@link Err} was encountered
+     */
+    public Optional<E> error() {
+        final Result<T, E> err = this.failure.get();
+        return err == null ? Optional.empty() : err.err();
+    }
+
+    /**
+     * Returns the {@link Err} that stopped the stream or the given value wrapped in an {@link Ok}.
+     * @param value The value to wrap if the stream was not stopped, e.g. the result of a terminal operation
+     * @param <U> The type of the value
+     * @return The {@link Err} that stopped the stream or {@code Ok(value)}
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Result<U, E> toResult(final U value) {
+        final Result<T, E> err = this.failure.get();
+        return err == null ? new Ok<>(value) : (Result<U, E>)err;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+/**
+ * Functional interfaces for functions of more than two arguments, used to combine several results.
+ */
+public final class Functions {
+    /**
+     * Ctor.
+     */
+    private Functions() {}
+
+    /**
+     * A function of 3 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function3<T1, T2, T3, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3);
+    }
+
+    /**
+     * A function of 4 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <T4> The type of the fourth argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function4<T1, T2, T3, T4, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @param t4 The fourth argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3, T4 t4);
+    }
+
+    /**
+     * A function of 5 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <T4> The type of the fourth argument
+     * @param <T5> The type of the fifth argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function5<T1, T2, T3, T4, T5, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @param t4 The fourth argument
+         * @param t5 The fifth argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3, T4 t4, T5 t5);
+    }
+
+    /**
+     * A function of 6 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <T4> The type of the fourth argument
+     * @param <T5> The type of the fifth argument
+     * @param <T6> The type of the sixth argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function6<T1, T2, T3, T4, T5, T6, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @param t4 The fourth argument
+         * @param t5 The fifth argument
+         * @param t6 The sixth argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3, T4 t4, T5 t5, T6 t6);
+    }
+
+    /**
+     * A function of 7 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <T4> The type of the fourth argument
+     * @param <T5> The type of the fifth argument
+     * @param <T6> The type of the sixth argument
+     * @param <T7> The type of the seventh argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function7<T1, T2, T3, T4, T5, T6, T7, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @param t4 The fourth argument
+         * @param t5 The fifth argument
+         * @param t6 The sixth argument
+         * @param t7 The seventh argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3, T4 t4, T5 t5, T6 t6, T7 t7);
+    }
+
+    /**
+     * A function of 8 arguments.
+     * @param <T1> The type of the first argument
+     * @param <T2> The type of the second argument
+     * @param <T3> The type of the third argument
+     * @param <T4> The type of the fourth argument
+     * @param <T5> The type of the fifth argument
+     * @param <T6> The type of the sixth argument
+     * @param <T7> The type of the seventh argument
+     * @param <T8> The type of the eighth argument
+     * @param <R> The type of the result
+     */
+    @FunctionalInterface
+    public interface Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> {
+        /**
+         * Applies the function.
+         * @param t1 The first argument
+         * @param t2 The second argument
+         * @param t3 The third argument
+         * @param t4 The fourth argument
+         * @param t5 The fifth argument
+         * @param t6 The sixth argument
+         * @param t7 The seventh argument
+         * @param t8 The eighth argument
+         * @return The result
+         */
+        R apply(T1 t1, T2 t2, T3 t3, T4 t4, T5 t5, T6 t6, T7 t7, T8 t8);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hedged execution of redundant {@code Supplier<Result<T, E>>}s. The primary supplier is started right away, every
+ * further supplier is started once the previous ones did not produce an {@link Ok} within the hedging delay, or as
+ * soon as all of them returned an {@link Err}. The returned future completes with the first {@link Ok} or the last
+ * {@link Err} if every supplier failed. Once the future is completed, all attempts that are still running are
+ * cancelled.
+ */
+public final class Hedge {
+    /**
+     * Number of latency samples used to estimate the hedging delay.
+     */
+    private static final int WINDOW_SIZE = 1024;
+
+    /**
+     * Executor the suppliers are run on.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Scheduler used to start the backup attempts.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The hedging delay in nanoseconds, used until the latency window has an estimate.
+     */
+    private final long delay;
+
+    /**
+     * Observed latencies of successful attempts or {@code null} for a fixed delay.
+     */
+    private final LatencyWindow latencies;
+
+    /**
+     * Ctor.
+     * @param executor Executor the suppliers are run on
+     * @param scheduler Scheduler used to start the backup attempts
+     * @param delay The (initial) hedging delay in nanoseconds
+     * @param latencies Observed latencies or {@code null} for a fixed delay
+     */
+    private Hedge(final ExecutorService executor, final ScheduledExecutorService scheduler, final long delay,
+                  final LatencyWindow latencies) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("delay must not be negative");
+        }
+        this.executor = executor;
+        this.scheduler = scheduler;
+        this.delay = delay;
+        this.latencies = latencies;
+    }
+
+    /**
+     * Creates a {@code Hedge} that starts backup attempts after a fixed delay.
+     * @param delay The hedging delay
+     * @param unit The unit of {@code delay}
+     * @param executor Executor the suppliers are run on
+     * @param scheduler Scheduler used to start the backup attempts
+     * @return A new {@code Hedge}
+     */
+    public static Hedge after(final long delay, final TimeUnit unit, final ExecutorService executor,
+                              final ScheduledExecutorService scheduler) {
+        return new Hedge(executor, scheduler, unit.toNanos(delay), null);
+    }
+
+    /**
+     * Creates a {@code Hedge} that starts backup attempts once the latency of the successful attempts seen so far
+     * exceeds the given percentile, e.g. {@code 0.95} to hedge the slowest five percent of the calls.
+     * @param percentile The percentile of the observed latency to use as hedging delay, in {@code (0, 1]}
+     * @param initialDelay The hedging delay to use until enough latencies were observed
+     * @param unit The unit of {@code initialDelay}
+     * @param executor Executor the suppliers are run on
+     * @param scheduler Scheduler used to start the backup attempts
+     * @return A new {@code Hedge}
+     */
+    public static Hedge atPercentile(final double percentile, final long initialDelay, final TimeUnit unit,
+                                     final ExecutorService executor, final ScheduledExecutorService scheduler) {
+        return new Hedge(executor, scheduler, unit.toNanos(initialDelay), new LatencyWindow(WINDOW_SIZE, percentile));
+    }
+
+    /**
+     * Returns the delay after which the next backup attempt is started.
+     * @return The current hedging delay in nanoseconds
+     */
+    public long currentDelay() {
+        return this.latencies == null ? this.delay : this.latencies.estimate(this.delay);
+    }
+
+    /**
+     * Races a primary and a backup supplier.
+     * @param primary The supplier that is started first
+     * @param backup The supplier that is started after the hedging delay
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A future that completes with the first {@link Ok} or the last {@link Err}
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E> CompletableFuture<Result<T, E>> call(final Supplier<Result<T, E>> primary,
+                                                       final Supplier<Result<T, E>> backup) {
+        return call(Arrays.asList(primary, backup));
+    }
+
+    /**
+     * Races the given suppliers, starting them one after another in list order.
+     * @param suppliers The suppliers to race, the first one is the primary
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A future that completes with the first {@link Ok} or the last {@link Err}
+     */
+    public <T, E> CompletableFuture<Result<T, E>> call(final List<? extends Supplier<Result<T, E>>> suppliers) {
+        if (suppliers.isEmpty()) {
+            throw new IllegalArgumentException("at least one supplier is required");
+        }
+        final Race<T, E> race = new Race<>(suppliers, currentDelay());
+        race.launch(0);
+        return race.promise;
+    }
+
+    /**
+     * State of a single hedged call.
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     */
+    private final class Race<T, E> {
+        /**
+         * The future handed out to the caller.
+         */
+        private final CompletableFuture<Result<T, E>> promise = new CompletableFuture<>();
+
+        /**
+         * The suppliers to race.
+         */
+        private final List<? extends Supplier<Result<T, E>>> suppliers;
+
+        /**
+         * The running attempts, indexed like {@link #suppliers}.
+         */
+        private final Future<?>[] attempts;
+
+        /**
+         * The hedging delay in nanoseconds.
+         */
+        private final long hedgeDelay;
+
+        /**
+         * The pending timer that starts the next attempt or {@code null}.
+         */
+        private Future<?> timer;
+
+        /**
+         * Number of attempts started so far.
+         */
+        private int launched;
+
+        /**
+         * Number of attempts that finished without an {@link Ok}.
+         */
+        private int failed;
+
+        /**
+         * The outcome of the last failed attempt.
+         */
+        private Result<T, E> lastErr;
+
+        /**
+         * The exception thrown by the last failed attempt.
+         */
+        private Throwable lastThrown;
+
+        /**
+         * Ctor.
+         * @param suppliers The suppliers to race
+         * @param hedgeDelay The hedging delay in nanoseconds
+         */
+        Race(final List<? extends Supplier<Result<T, E>>> suppliers, final long hedgeDelay) {
+            this.suppliers = suppliers;
+            this.attempts = new Future<?>[suppliers.size()];
+            this.hedgeDelay = hedgeDelay;
+            this.promise.whenComplete((res, ex) -> {
+                if (this.promise.isCancelled()) {
+                    cancelAll(-1);
+                }
+            });
+        }
+
+        /**
+         * Starts the attempt with the given index unless the race is already decided or the attempt was started.
+         * @param index The index of the attempt to start
+         */
+        synchronized void launch(final int index) {
+            if (this.promise.isDone() || index != this.launched) {
+                return;
+            }
+            this.launched++;
+            if (this.timer != null) {
+                this.timer.cancel(false);
+                this.timer = null;
+            }
+            try {
+                this.attempts[index] = executor.submit(() -> run(index));
+                if (this.launched < this.attempts.length) {
+                    this.timer = scheduler.schedule(() -> launch(index + 1), this.hedgeDelay, TimeUnit.NANOSECONDS);
+                }
+            } catch (final RejectedExecutionException ex) {
+                this.promise.completeExceptionally(ex);
+            }
+        }
+
+        /**
+         * Runs an attempt and records its outcome.
+         * @param index The index of the attempt
+         */
+        private void run(final int index) {
+            final long start = System.nanoTime();
+            final Result<T, E> result;
+            try {
+                result = this.suppliers.get(index).get();
+            } catch (final Throwable ex) {
+                failed(null, ex);
+                return;
+            }
+            if (result.isOk()) {
+                if (latencies != null) {
+                    latencies.record(System.nanoTime() - start);
+                }
+                if (this.promise.complete(result)) {
+                    cancelAll(index);
+                }
+            } else {
+                failed(result, null);
+            }
+        }
+
+        /**
+         * Records a failed attempt and either starts the next attempt right away or completes the race if every
+         * attempt failed.
+         * @param err The {@link Err} returned by the attempt or {@code null}
+         * @param thrown The exception thrown by the attempt or {@code null}
+         */
+        private synchronized void failed(final Result<T, E> err, final Throwable thrown) {
+            this.failed++;
+            if (err != null) {
+                this.lastErr = err;
+            } else {
+                this.lastThrown = thrown;
+            }
+            if (this.failed == this.attempts.length) {
+                if (this.lastErr == null) {
+                    this.promise.completeExceptionally(this.lastThrown);
+                } else {
+                    this.promise.complete(this.lastErr);
+                }
+            } else if (this.failed == this.launched) {
+                launch(this.launched);
+            }
+        }
+
+        /**
+         * Cancels the timer and every attempt that is still running.
+         * @param winner The index of the attempt that won the race or {@code -1}
+         */
+        private synchronized void cancelAll(final int winner) {
+            if (this.timer != null) {
+                this.timer.cancel(false);
+                this.timer = null;
+            }
+            for (int i = 0; i < this.attempts.length; i++) {
+                if (i != winner && this.attempts[i] != null) {
+                    this.attempts[i].cancel(true);
+                }
+            }
+        }
+    }
+}
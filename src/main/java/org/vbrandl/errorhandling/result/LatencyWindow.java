@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding window of latency samples that periodically recomputes a percentile. Recording a sample is a
+ * single {@code getAndIncrement} and an array store, the sort needed for the percentile only happens every
+ * {@link #RECOMPUTE_INTERVAL} samples on the recording thread.
+ */
+final class LatencyWindow {
+    /**
+     * Number of samples after which the percentile is recomputed.
+     */
+    private static final int RECOMPUTE_INTERVAL = 64;
+
+    /**
+     * Ring of the most recent samples in nanoseconds.
+     */
+    private final AtomicLongArray samples;
+
+    /**
+     * Total number of recorded samples.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * The percentile to estimate, in {@code (0, 1]}.
+     */
+    private final double percentile;
+
+    /**
+     * The last computed percentile in nanoseconds or {@code -1} if not enough samples were recorded yet.
+     */
+    private volatile long estimate = -1;
+
+    /**
+     * Ctor.
+     * @param size The number of samples to keep
+     * @param percentile The percentile to estimate, in {@code (0, 1]}
+     */
+    LatencyWindow(final int size, final double percentile) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("percentile must be in (0, 1]");
+        }
+        this.samples = new AtomicLongArray(size);
+        this.percentile = percentile;
+    }
+
+    /**
+     * Records a latency sample.
+     * @param nanos The latency in nanoseconds
+     */
+    void record(final long nanos) {
+        final long n = this.count.getAndIncrement();
+        this.samples.lazySet((int) (n % this.samples.length()), nanos);
+        if ((n + 1) % RECOMPUTE_INTERVAL == 0) {
+            recompute(Math.min(n + 1, this.samples.length()));
+        }
+    }
+
+    /**
+     * Returns the current percentile estimate.
+     * @param fallback The value to return if not enough samples were recorded yet
+     * @return The estimated percentile in nanoseconds or {@code fallback}
+     */
+    long estimate(final long fallback) {
+        final long current = this.estimate;
+        return current < 0 ? fallback : current;
+    }
+
+    /**
+     * Recomputes the percentile estimate from the first {@code filled} samples.
+     * @param filled The number of valid samples in the ring
+     */
+    private void recompute(final long filled) {
+        final long[] copy = new long[(int) filled];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = this.samples.get(i);
+        }
+        Arrays.sort(copy);
+        final int index = (int) Math.ceil(this.percentile * copy.length) - 1;
+        this.estimate = copy[Math.max(0, index)];
+    }
+}
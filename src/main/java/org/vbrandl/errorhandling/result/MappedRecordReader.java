@@ -0,0 +1,384 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a newline delimited file through memory mapping and parses every line into a {@link Result}. The file is
+ * split into chunks that end at a line break and are mapped and parsed in parallel. Lines are handed to the parser as
+ * a view into the mapped chunk, so no bytes are copied and no {@code String} is created unless the parser does so.
+ * Line breaks are {@code \n}, a preceding {@code \r} is stripped.
+ */
+public final class MappedRecordReader implements AutoCloseable {
+    /**
+     * Default size of a chunk in bytes.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+    /**
+     * Size of the buffer used to find the line break after a nominal chunk boundary.
+     */
+    private static final int SCAN_BUFFER_SIZE = 8 << 10;
+
+    /**
+     * The mapped file.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Start offsets of the chunks, followed by the size of the file.
+     */
+    private final long[] bounds;
+
+    /**
+     * Number of lines before each chunk, computed on first use.
+     */
+    private long[] linesBefore;
+
+    /**
+     * Ctor.
+     * @param channel The mapped file
+     * @param bounds Start offsets of the chunks, followed by the size of the file
+     */
+    private MappedRecordReader(final FileChannel channel, final long[] bounds) {
+        this.channel = channel;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Opens a file with chunks of 64 MiB.
+     * @param path The file to read
+     * @return A new reader
+     * @throws IOException if the file cannot be opened
+     */
+    public static MappedRecordReader open(final Path path) throws IOException {
+        return open(path, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Opens a file.
+     * @param path The file to read
+     * @param chunkSize The nominal size of a chunk in bytes, chunks are extended to the next line break
+     * @return A new reader
+     * @throws IOException if the file cannot be opened or contains a line longer than {@code Integer.MAX_VALUE}
+     */
+    public static MappedRecordReader open(final Path path, final int chunkSize) throws IOException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedRecordReader(channel, split(channel, chunkSize));
+        } catch (final IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the number of chunks the file was split into.
+     * @return The number of chunks
+     */
+    public int chunks() {
+        return this.bounds.length - 1;
+    }
+
+    /**
+     * Parses all lines into an ordered, parallel stream of results. To number the lines, the first call on a reader
+     * scans every chunk once for line breaks before the first result is produced, so the file is read twice. The
+     * counts are kept for later calls.
+     * @param parser The parser for a single line
+     * @param <R> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A stream of one result per line, in file order
+     */
+    public <R, E> Stream<Result<R, E>> stream(final LineParser<R, E> parser) {
+        final long[] before = lineCounts();
+        return IntStream.range(0, chunks()).parallel().boxed()
+            .flatMap(chunk -> StreamSupport.stream(new ChunkSpliterator<>(map(chunk), this.bounds[chunk],
+                                                                          before[chunk], parser), false));
+    }
+
+    /**
+     * Parses all lines and partitions the results. Like {@link #stream(LineParser)}, the first call scans the file
+     * once for line breaks before parsing.
+     * @param parser The parser for a single line
+     * @param <R> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return The values and errors of all lines, each in file order
+     */
+    public <R, E> Partition<R, E> partition(final LineParser<R, E> parser) {
+        return stream(parser).collect(Partition.collector());
+    }
+
+    /**
+     * Closes the file. Chunks that are still mapped stay valid until they are garbage collected.
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    /**
+     * Splits a file into chunks that end after a line break.
+     * @param channel The file
+     * @param chunkSize The nominal size of a chunk
+     * @return Start offsets of the chunks, followed by the size of the file
+     * @throws IOException if reading the file fails or a chunk would exceed {@code Integer.MAX_VALUE} bytes
+     */
+    private static long[] split(final FileChannel channel, final int chunkSize) throws IOException {
+        final long size = channel.size();
+        final List<Long> bounds = new ArrayList<>();
+        final ByteBuffer scan = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long start = 0;
+        while (start < size) {
+            bounds.add(start);
+            long end = start + chunkSize;
+            if (end < size) {
+                end = nextLine(channel, end, scan);
+            }
+            end = Math.min(end, size);
+            if (end - start > Integer.MAX_VALUE) {
+                throw new IOException("line at offset " + start + " is too long to be mapped");
+            }
+            start = end;
+        }
+        bounds.add(size);
+        final long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Finds the offset after the next line break.
+     * @param channel The file
+     * @param from The offset to start searching at
+     * @param scan A buffer for reading
+     * @return The offset after the next line break or the size of the file
+     * @throws IOException if reading the file fails
+     */
+    private static long nextLine(final FileChannel channel, final long from, final ByteBuffer scan)
+        throws IOException {
+        long position = from;
+        while (true) {
+            scan.clear();
+            final int read = channel.read(scan, position);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (scan.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Maps a chunk.
+     * @param chunk The index of the chunk
+     * @return The mapped chunk
+     */
+    private MappedByteBuffer map(final int chunk) {
+        try {
+            return this.channel.map(FileChannel.MapMode.READ_ONLY, this.bounds[chunk],
+                                    this.bounds[chunk + 1] - this.bounds[chunk]);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Counts the lines of all chunks in parallel.
+     * @return Number of lines before each chunk
+     */
+    private synchronized long[] lineCounts() {
+        if (this.linesBefore == null) {
+            final long[] counts = IntStream.range(0, chunks()).parallel()
+                .mapToLong(chunk -> countLines(map(chunk)))
+                .toArray();
+            final long[] before = new long[counts.length];
+            for (int i = 1; i < before.length; i++) {
+                before[i] = before[i - 1] + counts[i - 1];
+            }
+            this.linesBefore = before;
+        }
+        return this.linesBefore;
+    }
+
+    /**
+     * Counts the lines of a chunk.
+     * @param chunk The mapped chunk
+     * @return The number of lines, including a last line without line break
+     */
+    private static long countLines(final ByteBuffer chunk) {
+        final int limit = chunk.limit();
+        long lines = 0;
+        for (int i = 0; i < limit; i++) {
+            if (chunk.get(i) == '\n') {
+                lines++;
+            }
+        }
+        if (limit > 0 && chunk.get(limit - 1) != '\n') {
+            lines++;
+        }
+        return lines;
+    }
+
+    /**
+     * Parser for a single line.
+     * @param <R> The type of the Ok value
+     * @param <E> The type of the Err value
+     */
+    @FunctionalInterface
+    public interface LineParser<R, E> {
+        /**
+         * Parses a line. The bytes of the line are the remaining bytes of {@code line}, i.e. from its position to its
+         * limit, without the line break. The buffer is reused for the next line and must not be retained.
+         * @param line A view of the line
+         * @param lineNumber The 1-based number of the line
+         * @param offset The offset of the first byte of the line in the file
+         * @return The parsed record or an error, not {@code null}
+         */
+        Result<R, E> parse(ByteBuffer line, long lineNumber, long offset);
+    }
+
+    /**
+     * Spliterator over the lines of a single chunk.
+     * @param <R> The type of the Ok value
+     * @param <E> The type of the Err value
+     */
+    private static final class ChunkSpliterator<R, E> extends Spliterators.AbstractSpliterator<Result<R, E>> {
+        /**
+         * The mapped chunk.
+         */
+        private final ByteBuffer chunk;
+
+        /**
+         * The view handed to the parser.
+         */
+        private final ByteBuffer view;
+
+        /**
+         * Offset of the chunk in the file.
+         */
+        private final long offset;
+
+        /**
+         * The line parser.
+         */
+        private final LineParser<R, E> parser;
+
+        /**
+         * Number of the last parsed line.
+         */
+        private long lineNumber;
+
+        /**
+         * Start of the next line in the chunk.
+         */
+        private int position;
+
+        /**
+         * Ctor.
+         * @param chunk The mapped chunk
+         * @param offset Offset of the chunk in the file
+         * @param linesBefore Number of lines before the chunk
+         * @param parser The line parser
+         */
+        ChunkSpliterator(final ByteBuffer chunk, final long offset, final long linesBefore,
+                         final LineParser<R, E> parser) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.chunk = chunk;
+            this.view = chunk.duplicate();
+            this.offset = offset;
+            this.lineNumber = linesBefore;
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super Result<R, E>> action) {
+            final int limit = this.chunk.limit();
+            if (this.position >= limit) {
+                return false;
+            }
+            final int start = this.position;
+            int end = start;
+            while (end < limit && this.chunk.get(end) != '\n') {
+                end++;
+            }
+            this.position = end + 1;
+            if (end > start && this.chunk.get(end - 1) == '\r') {
+                end--;
+            }
+            this.view.limit(limit);
+            this.view.position(start);
+            this.view.limit(end);
+            this.lineNumber++;
+            final Result<R, E> result = this.parser.parse(this.view, this.lineNumber, this.offset + start);
+            if (result == null) {
+                throw new NullPointerException("parser returned null for line " + this.lineNumber);
+            }
+            action.accept(result);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A resettable holder with the read API of {@link Result}, meant to be reused across the iterations of a tight
+ * loop instead of allocating an immutable {@link Ok} or {@link Err} per iteration. {@link #freeze()} creates an
+ * immutable {@link Result} once a value has to escape the loop. A new holder contains an empty {@link Ok}.
+ * Instances are not thread-safe.
+ * @param <T> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class MutableResult<T, E> {
+    /**
+     * Whether the holder currently contains an Ok value.
+     */
+    private boolean ok = true;
+
+    /**
+     * The current value, {@code null} for an Err.
+     */
+    private T value;
+
+    /**
+     * The current error, {@code null} for an Ok.
+     */
+    private E error;
+
+    /**
+     * Sets an Ok value.
+     * @param value The value, {@code null} for an empty Ok
+     * @return This holder
+     */
+    public MutableResult<T, E> setOk(final T value) {
+        this.ok = true;
+        this.value = value;
+        this.error = null;
+        return this;
+    }
+
+    /**
+     * Sets an Err value.
+     * @param error The error
+     * @return This holder
+     */
+    public MutableResult<T, E> setErr(final E error) {
+        this.ok = false;
+        this.value = null;
+        this.error = error;
+        return this;
+    }
+
+    /**
+     * Copies the state of a {@link Result}.
+     * @param result The result to copy
+     * @return This holder
+     */
+    public MutableResult<T, E> set(final Result<? extends T, ? extends E> result) {
+        return result.isOk()
+            ? setOk(result.unwrapOr(null))
+            : setErr(result.getErr());
+    }
+
+    /**
+     * Resets the holder to an empty Ok and drops the references to the current value or error.
+     * @return This holder
+     */
+    public MutableResult<T, E> clear() {
+        return setOk(null);
+    }
+
+    /**
+     * Creates an immutable {@link Result} from the current state.
+     * @return A new {@link Ok} or {@link Err}
+     */
+    public Result<T, E> freeze() {
+        return this.ok
+            ? new Ok<>(this.value)
+            : new Err<>(this.error);
+    }
+
+    /**
+     * Converts from {@code MutableResult<T, E>} to {@code Optional<T>}.
+     * @return An {@code Optional} containing the current value or an empty value for an Err or an empty Ok
+     */
+    public Optional<T> ok() {
+        return this.ok ? Optional.ofNullable(this.value) : Optional.empty();
+    }
+
+    /**
+     * Converts from {@code MutableResult<T, E>} to {@code Optional<E>}.
+     * @return An {@code Optional} containing the current error or an empty value for an Ok
+     */
+    public Optional<E> err() {
+        return this.ok ? Optional.empty() : Optional.of(this.error);
+    }
+
+    /**
+     * Checks if the holder contains an Ok.
+     * @return {@code true} for an Ok, else {@code false}
+     */
+    public boolean isOk() {
+        return this.ok;
+    }
+
+    /**
+     * Checks if the holder contains an Err.
+     * @return {@code true} for an Err, else {@code false}
+     */
+    public boolean isErr() {
+        return !this.ok;
+    }
+
+    /**
+     * Checks if the holder contains a value.
+     * @return {@code true} for an Ok with value, {@code false} for an empty Ok or an Err
+     */
+    public boolean hasValue() {
+        return this.ok && this.value != null;
+    }
+
+    /**
+     * Get the current value.
+     * @return The current value
+     * @throws org.vbrandl.errorhandling.result.EmptyResultException if the holder contains an empty Ok
+     * @throws org.vbrandl.errorhandling.result.ErrHasNoOkException if the holder contains an Err
+     */
+    public T getOk() {
+        if (!this.ok) {
+            throw new ErrHasNoOkException();
+        }
+        if (this.value == null) {
+            throw new EmptyResultException();
+        }
+        return this.value;
+    }
+
+    /**
+     * Get the current error.
+     * @return The current error
+     * @throws org.vbrandl.errorhandling.result.OkHasNoErrException if the holder contains an Ok
+     */
+    public E getErr() {
+        if (this.ok) {
+            throw new OkHasNoErrException();
+        }
+        return this.error;
+    }
+
+    /**
+     * Applies a consumer to the current value.
+     * @param consFn The consumer to apply
+     */
+    public void ifOk(final Consumer<? super T> consFn) {
+        if (hasValue()) {
+            consFn.accept(this.value);
+        }
+    }
+
+    /**
+     * Applies a consumer to the current error.
+     * @param consFn The consumer to apply
+     */
+    public void ifErr(final Consumer<? super E> consFn) {
+        if (!this.ok) {
+            consFn.accept(this.error);
+        }
+    }
+
+    /**
+     * Unwraps the current value or returns the supplied default.
+     * @param other Default value
+     * @return The current value or {@code other}
+     */
+    public T unwrapOr(final T other) {
+        return hasValue() ? this.value : other;
+    }
+
+    /**
+     * Unwraps the current error or returns the supplied default.
+     * @param other Default error
+     * @return The current error or {@code other}
+     */
+    public E unwrapErrOr(final E other) {
+        return this.ok ? other : this.error;
+    }
+
+    /**
+     * Unwraps the current value or returns the result of the supplied {@code Supplier}.
+     * @param other Supplier to be executed if no value is present
+     * @return The current value or the result of {@code other}
+     */
+    public T unwrapOrElse(final Supplier<? extends T> other) {
+        return hasValue() ? this.value : other.get();
+    }
+
+    /**
+     * Unwraps the current error or returns the result of the supplied {@code Supplier}.
+     * @param other Supplier to be executed if no error is present
+     * @return The current error or the result of {@code other}
+     */
+    public E unwrapErrOrElse(final Supplier<? extends E> other) {
+        return this.ok ? other.get() : this.error;
+    }
+
+    /**
+     * Unwraps the current value or throws an exception.
+     * @param exSup The exception to be thrown
+     * @param <X> Exception class
+     * @return The current value
+     * @throws X if there is no value present
+     */
+    public <X extends Throwable> T unwrapOrThrow(final Supplier<? extends X> exSup) throws X {
+        if (hasValue()) {
+            return this.value;
+        }
+        throw exSup.get();
+    }
+
+    /**
+     * Unwraps the current error or throws an exception.
+     * @param exSup The exception to be thrown
+     * @param <X> Exception class
+     * @return The current error
+     * @throws X if there is no error present
+     */
+    public <X extends Throwable> E unwrapErrOrThrow(final Supplier<? extends X> exSup) throws X {
+        if (this.ok) {
+            throw exSup.get();
+        }
+        return this.error;
+    }
+}
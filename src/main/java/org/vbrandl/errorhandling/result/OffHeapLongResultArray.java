@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.function.LongUnaryOperator;
+import java.util.function.LongPredicate;
+
+/**
+ * Off-heap array of {@code Result<Long, Integer>} elements.
+ * @see OffHeapResultArray
+ */
+public final class OffHeapLongResultArray extends OffHeapResultArray {
+    /**
+     * Bytes per value.
+     */
+    private static final int WIDTH = Long.BYTES;
+
+    /**
+     * Ctor.
+     * @param length Number of elements
+     * @param file File to map or {@code null} for direct buffers
+     * @throws IOException if the file cannot be mapped
+     */
+    private OffHeapLongResultArray(final long length, final Path file) throws IOException {
+        super(length, WIDTH, file);
+    }
+
+    /**
+     * Allocates an array in direct buffers.
+     * @param length Number of elements
+     * @return A new array of {@code Ok(0)} elements
+     */
+    public static OffHeapLongResultArray allocate(final long length) {
+        try {
+            return new OffHeapLongResultArray(length, null);
+        } catch (final IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Maps an array to a file, which is created or extended as needed. An existing file must have been written for
+     * an array of the same length and value width.
+     * @param file The file
+     * @param length Number of elements
+     * @return A new array backed by {@code file}
+     * @throws IOException if the file cannot be mapped or holds an array of another length or value width
+     */
+    public static OffHeapLongResultArray map(final Path file, final long length) throws IOException {
+        return new OffHeapLongResultArray(length, file);
+    }
+
+    /**
+     * Returns the value of an element.
+     * @param index The index
+     * @return The value
+     * @throws ErrHasNoOkException if the element is an {@link Err}
+     */
+    public long get(final long index) {
+        if (isErr(index)) {
+            throw new ErrHasNoOkException();
+        }
+        return values(segment(index)).getLong(offset(index));
+    }
+
+    /**
+     * Sets an element to an {@link Ok}.
+     * @param index The index
+     * @param value The value
+     */
+    public void set(final long index, final long value) {
+        setStatus(index, false);
+        values(segment(index)).putLong(offset(index), value);
+    }
+
+    /**
+     * Returns an element as a {@link Result}.
+     * @param index The index
+     * @return The value or the error code
+     */
+    public Result<Long, Integer> result(final long index) {
+        return isErr(index) ? new Err<>(errorCode(index)) : new Ok<>(get(index));
+    }
+
+    /**
+     * Applies a function to the value of every {@link Ok} element in place.
+     * @param mapFn The function to apply
+     */
+    public void map(final LongUnaryOperator mapFn) {
+        for (int s = 0; s < segmentCount(); s++) {
+            final ByteBuffer values = values(s);
+            final int elements = segmentLength(s);
+            for (int w = 0; w < words(elements); w++) {
+                final long errs = statusWord(s, w);
+                final int end = Math.min(elements, (w + 1) << 6);
+                if (errs == 0) {
+                    for (int i = w << 6; i < end; i++) {
+                        values.putLong(i * WIDTH, mapFn.applyAsLong(values.getLong(i * WIDTH)));
+                    }
+                } else {
+                    for (int i = w << 6; i < end; i++) {
+                        if ((errs & 1L << i) == 0) {
+                            values.putLong(i * WIDTH, mapFn.applyAsLong(values.getLong(i * WIDTH)));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns every {@link Ok} element whose value does not match a predicate into an {@link Err} in place.
+     * @param predicate The predicate
+     * @param code The error code of the rejected elements
+     */
+    public void filter(final LongPredicate predicate, final int code) {
+        for (int s = 0; s < segmentCount(); s++) {
+            final ByteBuffer values = values(s);
+            final int elements = segmentLength(s);
+            for (int w = 0; w < words(elements); w++) {
+                final long errs = statusWord(s, w);
+                long rejected = 0;
+                final int end = Math.min(elements, (w + 1) << 6);
+                if (errs == 0) {
+                    for (int i = w << 6; i < end; i++) {
+                        if (!predicate.test(values.getLong(i * WIDTH))) {
+                            rejected |= 1L << i;
+                            values.putLong(i * WIDTH, code);
+                        }
+                    }
+                } else {
+                    for (int i = w << 6; i < end; i++) {
+                        if ((errs & 1L << i) == 0 && !predicate.test(values.getLong(i * WIDTH))) {
+                            rejected |= 1L << i;
+                            values.putLong(i * WIDTH, code);
+                        }
+                    }
+                }
+                if (rejected != 0) {
+                    statusWord(s, w, errs | rejected);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sums the values of all {@link Ok} elements.
+     * @return The sum, overflowing like {@code long} arithmetic
+     */
+    public long sum() {
+        long sum = 0;
+        for (int s = 0; s < segmentCount(); s++) {
+            final ByteBuffer values = values(s);
+            final int elements = segmentLength(s);
+            for (int w = 0; w < words(elements); w++) {
+                final long errs = statusWord(s, w);
+                final int end = Math.min(elements, (w + 1) << 6);
+                if (errs == 0) {
+                    for (int i = w << 6; i < end; i++) {
+                        sum += values.getLong(i * WIDTH);
+                    }
+                } else {
+                    for (int i = w << 6; i < end; i++) {
+                        if ((errs & 1L << i) == 0) {
+                            sum += values.getLong(i * WIDTH);
+                        }
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+}
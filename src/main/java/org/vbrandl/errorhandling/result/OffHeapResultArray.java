@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed size array of primitive results stored outside the heap. Values live in direct or memory-mapped
+ * {@link ByteBuffer} segments, the Ok/Err state of every element is one bit in a separate bitset, and the error code
+ * of an {@link Err} is stored in the value slot. Every element is initially {@code Ok(0)}, except for a mapped file
+ * with existing content.
+ * <p>
+ * Scans read one 64-bit status word per 64 elements. A word without any {@link Err} takes a fast path that processes
+ * its 64 elements without testing their status bits. {@link #close()} releases the memory immediately instead of waiting for the garbage
+ * collector; the array must not be used afterwards. Instances are not thread safe.
+ */
+public abstract class OffHeapResultArray implements AutoCloseable {
+    /**
+     * Log2 of the number of elements per segment.
+     */
+    static final int SEGMENT_SHIFT = 27;
+
+    /**
+     * Number of elements per segment.
+     */
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+    /**
+     * Mask of the index within a segment.
+     */
+    static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /**
+     * Marks a file written by this class.
+     */
+    private static final int MAGIC = 0x52455341;
+
+    /**
+     * Size of the file header holding {@link #MAGIC}, the value width and the length.
+     */
+    private static final int HEADER_BYTES = 16;
+
+    /**
+     * Number of elements.
+     */
+    private final long length;
+
+    /**
+     * Bytes per value.
+     */
+    private final int width;
+
+    /**
+     * The value segments.
+     */
+    private ByteBuffer[] values;
+
+    /**
+     * The status segments, one bit per element, set for an {@link Err}.
+     */
+    private ByteBuffer[] status;
+
+    /**
+     * Ctor.
+     * @param length Number of elements
+     * @param width Bytes per value
+     * @param file File to map or {@code null} for direct buffers
+     * @throws IOException if the file cannot be mapped
+     */
+    OffHeapResultArray(final long length, final int width, final Path file) throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.length = length;
+        this.width = width;
+        final int segments = (int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+        this.values = new ByteBuffer[segments];
+        this.status = new ByteBuffer[segments];
+        if (file == null) {
+            for (int s = 0; s < segments; s++) {
+                this.values[s] = order(ByteBuffer.allocateDirect(segmentLength(s) * width));
+                this.status[s] = order(ByteBuffer.allocateDirect(statusBytes(segmentLength(s))));
+            }
+        } else {
+            map(file, segments);
+        }
+    }
+
+    /**
+     * Returns the number of elements.
+     * @return The length
+     */
+    public long length() {
+        return this.length;
+    }
+
+    /**
+     * Checks whether an element is an {@link Ok}.
+     * @param index The index
+     * @return {@code true} for an {@link Ok}
+     */
+    public boolean isOk(final long index) {
+        return !isErr(index);
+    }
+
+    /**
+     * Checks whether an element is an {@link Err}.
+     * @param index The index
+     * @return {@code true} for an {@link Err}
+     */
+    public boolean isErr(final long index) {
+        final long word = statusWord(segment(index), (int) (index & SEGMENT_MASK) >>> 6);
+        return (word & (1L << index)) != 0;
+    }
+
+    /**
+     * Returns the error code of an element.
+     * @param index The index
+     * @return The error code
+     * @throws OkHasNoErrException if the element is an {@link Ok}
+     */
+    public int errorCode(final long index) {
+        if (!isErr(index)) {
+            throw new OkHasNoErrException();
+        }
+        final ByteBuffer segment = this.values[segment(index)];
+        return this.width == Long.BYTES ? (int) segment.getLong(offset(index)) : segment.getInt(offset(index));
+    }
+
+    /**
+     * Sets an element to an {@link Err}.
+     * @param index The index
+     * @param code The error code
+     */
+    public void setErr(final long index, final int code) {
+        setStatus(index, true);
+        final ByteBuffer segment = this.values[segment(index)];
+        if (this.width == Long.BYTES) {
+            segment.putLong(offset(index), code);
+        } else {
+            segment.putInt(offset(index), code);
+        }
+    }
+
+    /**
+     * Counts the {@link Ok} elements.
+     * @return The number of {@link Ok} elements
+     */
+    public long okCount() {
+        long errs = 0;
+        for (int s = 0; s < segmentCount(); s++) {
+            final int words = words(segmentLength(s));
+            for (int w = 0; w < words; w++) {
+                errs += Long.bitCount(statusWord(s, w));
+            }
+        }
+        return this.length - errs;
+    }
+
+    /**
+     * Reorders the elements so that all {@link Ok} elements come first. The order within both groups is not kept.
+     * @return The number of {@link Ok} elements
+     */
+    public long partition() {
+        long left = 0;
+        long right = this.length - 1;
+        while (true) {
+            while (left <= right && !isErr(left)) {
+                left++;
+            }
+            while (right > left && isErr(right)) {
+                right--;
+            }
+            if (left >= right) {
+                return left;
+            }
+            swapValues(left, right);
+            setStatus(left, false);
+            setStatus(right, true);
+        }
+    }
+
+    /**
+     * Releases the memory. Mapped files keep their content.
+     */
+    @Override
+    public void close() {
+        if (this.values == null) {
+            return;
+        }
+        for (final ByteBuffer buffer : this.values) {
+            release(buffer);
+        }
+        for (final ByteBuffer buffer : this.status) {
+            release(buffer);
+        }
+        this.values = null;
+        this.status = null;
+    }
+
+    /**
+     * Returns the number of segments.
+     * @return The number of segments
+     * @throws IllegalStateException if the array was closed
+     */
+    final int segmentCount() {
+        if (this.values == null) {
+            throw new IllegalStateException("array is closed");
+        }
+        return this.values.length;
+    }
+
+    /**
+     * Returns the number of elements of a segment.
+     * @param segment The segment
+     * @return The number of elements
+     */
+    final int segmentLength(final int segment) {
+        return (int) Math.min(SEGMENT_SIZE, this.length - ((long) segment << SEGMENT_SHIFT));
+    }
+
+    /**
+     * Returns a value segment.
+     * @param segment The segment
+     * @return The values
+     */
+    final ByteBuffer values(final int segment) {
+        segmentCount();
+        return this.values[segment];
+    }
+
+    /**
+     * Returns a word of the status bits of a segment.
+     * @param segment The segment
+     * @param word The index of the word
+     * @return The status bits of 64 elements, set for an {@link Err}
+     */
+    final long statusWord(final int segment, final int word) {
+        segmentCount();
+        return this.status[segment].getLong(word << 3);
+    }
+
+    /**
+     * Replaces a word of the status bits of a segment.
+     * @param segment The segment
+     * @param word The index of the word
+     * @param bits The status bits of 64 elements, set for an {@link Err}
+     */
+    final void statusWord(final int segment, final int word, final long bits) {
+        segmentCount();
+        this.status[segment].putLong(word << 3, bits);
+    }
+
+    /**
+     * Sets the status bit of an element.
+     * @param index The index
+     * @param err Whether the element is an {@link Err}
+     */
+    final void setStatus(final long index, final boolean err) {
+        final int segment = segment(index);
+        final int word = (int) (index & SEGMENT_MASK) >>> 6;
+        final long bits = statusWord(segment, word);
+        statusWord(segment, word, err ? bits | 1L << index : bits & ~(1L << index));
+    }
+
+    /**
+     * Returns the segment of an element.
+     * @param index The index
+     * @return The segment
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    final int segment(final long index) {
+        if (index < 0 || index >= this.length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of bounds for length " + this.length);
+        }
+        segmentCount();
+        return (int) (index >>> SEGMENT_SHIFT);
+    }
+
+    /**
+     * Returns the byte offset of an element in its value segment.
+     * @param index The index
+     * @return The offset
+     */
+    final int offset(final long index) {
+        return (int) (index & SEGMENT_MASK) * this.width;
+    }
+
+    /**
+     * Returns the number of status words of a segment.
+     * @param elements The number of elements of the segment
+     * @return The number of words
+     */
+    static int words(final int elements) {
+        return (elements + 63) >>> 6;
+    }
+
+    /**
+     * Swaps the values of two elements.
+     * @param fst The first index
+     * @param snd The second index
+     */
+    private void swapValues(final long fst, final long snd) {
+        final ByteBuffer fstSegment = this.values[segment(fst)];
+        final ByteBuffer sndSegment = this.values[segment(snd)];
+        if (this.width == Long.BYTES) {
+            final long tmp = fstSegment.getLong(offset(fst));
+            fstSegment.putLong(offset(fst), sndSegment.getLong(offset(snd)));
+            sndSegment.putLong(offset(snd), tmp);
+        } else {
+            final int tmp = fstSegment.getInt(offset(fst));
+            fstSegment.putInt(offset(fst), sndSegment.getInt(offset(snd)));
+            sndSegment.putInt(offset(snd), tmp);
+        }
+    }
+
+    /**
+     * Maps the segments of a file. The file holds a header, followed by all status bits and then all values.
+     * @param file The file
+     * @param segments The number of segments
+     * @throws IOException if the file cannot be mapped or holds an array of another width or length
+     */
+    private void map(final Path file, final int segments) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE)) {
+            checkHeader(file, channel);
+            long statusOffset = HEADER_BYTES;
+            long valueOffset = HEADER_BYTES;
+            for (int s = 0; s < segments; s++) {
+                valueOffset += statusBytes(segmentLength(s));
+            }
+            for (int s = 0; s < segments; s++) {
+                final int elements = segmentLength(s);
+                this.status[s] = order(channel.map(FileChannel.MapMode.READ_WRITE, statusOffset,
+                                                   statusBytes(elements)));
+                this.values[s] = order(channel.map(FileChannel.MapMode.READ_WRITE, valueOffset,
+                                                   (long) elements * this.width));
+                statusOffset += statusBytes(elements);
+                valueOffset += (long) elements * this.width;
+            }
+        }
+    }
+
+    /**
+     * Writes the header to an empty file or checks that the header of an existing file matches this array.
+     * @param file The file
+     * @param channel The open channel of the file
+     * @throws IOException if the file cannot be accessed or holds an array of another width or length
+     */
+    private void checkHeader(final Path file, final FileChannel channel) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        if (channel.size() == 0) {
+            header.putInt(MAGIC).putInt(this.width).putLong(this.length).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            return;
+        }
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // read until the header is complete or the file ends
+        }
+        if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != this.width
+            || header.getLong(8) != this.length) {
+            throw new IOException(file + " does not hold an array of " + this.length + " elements of " + this.width
+                                  + " bytes");
+        }
+    }
+
+    /**
+     * Returns the size of the status bits of a segment.
+     * @param elements The number of elements of the segment
+     * @return The size in bytes
+     */
+    private static int statusBytes(final int elements) {
+        return words(elements) << 3;
+    }
+
+    /**
+     * Sets the native byte order on a buffer.
+     * @param buffer The buffer
+     * @return {@code buffer}
+     */
+    private static ByteBuffer order(final ByteBuffer buffer) {
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Frees the memory of a direct or mapped buffer. Uses {@code Unsafe.invokeCleaner} on Java 9 and later and the
+     * buffer's cleaner on Java 8; if neither is accessible, the memory is freed by the garbage collector.
+     * @param buffer The buffer
+     */
+    private static void release(final ByteBuffer buffer) {
+        try {
+            if (Cleaners.UNSAFE != null) {
+                Cleaners.INVOKE_CLEANER.invoke(Cleaners.UNSAFE, buffer);
+            } else if (Cleaners.CLEANER != null) {
+                final Object cleaner = Cleaners.CLEANER.invoke(buffer);
+                if (cleaner != null) {
+                    Cleaners.CLEAN.invoke(cleaner);
+                }
+            }
+        } catch (final ReflectiveOperationException | RuntimeException ex) {
+            // not accessible, the garbage collector frees the buffer
+        }
+    }
+
+    /**
+     * The reflective handles used to free buffers, looked up once.
+     */
+    private static final class Cleaners {
+        /**
+         * The {@code sun.misc.Unsafe} instance on Java 9 and later, {@code null} if not accessible.
+         */
+        private static final Object UNSAFE;
+
+        /**
+         * {@code Unsafe.invokeCleaner} on Java 9 and later, {@code null} if not accessible.
+         */
+        private static final Method INVOKE_CLEANER;
+
+        /**
+         * {@code DirectBuffer.cleaner} on Java 8, {@code null} if not accessible.
+         */
+        private static final Method CLEANER;
+
+        /**
+         * {@code Cleaner.clean} on Java 8, {@code null} if not accessible.
+         */
+        private static final Method CLEAN;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            Method cleaner = null;
+            Method clean = null;
+            try {
+                final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafe = theUnsafe.get(null);
+            } catch (final NoSuchMethodException ex) {
+                try {
+                    cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+                    clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+                } catch (final ReflectiveOperationException | RuntimeException inner) {
+                    // not accessible, the garbage collector frees the buffers
+                }
+            } catch (final ReflectiveOperationException | RuntimeException ex) {
+                // not accessible, the garbage collector frees the buffers
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = unsafe == null ? null : invokeCleaner;
+            CLEANER = clean == null ? null : cleaner;
+            CLEAN = clean;
+        }
+
+        /**
+         * Ctor.
+         */
+        private Cleaners() {}
+    }
+}
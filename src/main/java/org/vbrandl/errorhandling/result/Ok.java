@@ -42,9 +42,11 @@
 package org.vbrandl.errorhandling.result;
 
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Wrapper class for successfull results.
@@ -83,6 +85,11 @@ public final class Ok<T, E> extends Result<T, E> {
         return Optional.empty();
     }
 
+    @Override
+    public Stream<T> stream() {
+        return this.value.isPresent() ? Stream.of(this.value.get()) : Stream.empty();
+    }
+
     @Override
     public boolean hasValue() {
         return this.value.isPresent();
@@ -102,13 +109,22 @@ public final class Ok<T, E> extends Result<T, E> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <U> Result<U, E> map(final Function<? super T, U> mapFn) {
-        return andThen(mapFn.andThen(value -> new Ok<>(value)));
+        if (this.value.isPresent()) {
+            return new Ok<>(mapFn.apply(this.value.get()));
+        }
+        return (Result<U, E>)this;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <U> Result<U, E> andThen(final Function<? super T, Result<U, E>> mapFn) {
-        return this.value.map(mapFn).orElse(new Ok<>(null));
+        if (this.value.isPresent()) {
+            final Result<U, E> result = mapFn.apply(this.value.get());
+            return result == null ? new Ok<>(null) : result;
+        }
+        return (Result<U, E>)this;
     }
 
     @Override
@@ -123,6 +139,59 @@ public final class Ok<T, E> extends Result<T, E> {
         return (Result<T, U>)this;
     }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<U, E> mapWith(final C ctx, final BiFunction<? super C, ? super T, U> mapFn) {
+        if (this.value.isPresent()) {
+            return new Ok<>(mapFn.apply(ctx, this.value.get()));
+        }
+        return (Result<U, E>)this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<U, E> andThenWith(final C ctx,
+                                           final BiFunction<? super C, ? super T, Result<U, E>> mapFn) {
+        if (this.value.isPresent()) {
+            final Result<U, E> result = mapFn.apply(ctx, this.value.get());
+            return result == null ? new Ok<>(null) : result;
+        }
+        return (Result<U, E>)this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<T, U> mapErrWith(final C ctx, final BiFunction<? super C, ? super E, U> mapFn) {
+        return (Result<T, U>)this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <C, U> Result<T, U> orElseWith(final C ctx,
+                                          final BiFunction<? super C, ? super E, Result<T, U>> mapFn) {
+        return (Result<T, U>)this;
+    }
+
+    @Override
+    public Result<T, E> context(final String message) {
+        return this;
+    }
+
+    @Override
+    public Result<T, E> context(final Supplier<String> message) {
+        return this;
+    }
+
+    @Override
+    public Result<T, E> context(final String template, final Object arg) {
+        return this;
+    }
+
+    @Override
+    public Result<T, E> context(final String template, final Object arg1, final Object arg2) {
+        return this;
+    }
+
     @Override
     public void ifOk(final Consumer<? super T> consFn) {
         this.value.ifPresent(consFn);
@@ -164,7 +233,7 @@ public final class Ok<T, E> extends Result<T, E> {
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 97 * hash + (this.value.hashCode() ^ this.value.hashCode());
+        hash = 97 * hash + this.value.hashCode();
         return hash;
     }
 
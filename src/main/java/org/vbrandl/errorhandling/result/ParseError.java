@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.List;
+
+/**
+ * The furthest failure of a {@link Parser}: the position the parser got to and what it expected there.
+ */
+public final class ParseError {
+    /**
+     * The position of the failure.
+     */
+    private final int position;
+
+    /**
+     * The 1-based line of the failure.
+     */
+    private final int line;
+
+    /**
+     * The 1-based column of the failure.
+     */
+    private final int column;
+
+    /**
+     * Descriptions of what was expected at the position.
+     */
+    private final List<String> expected;
+
+    /**
+     * Ctor.
+     * @param position The position of the failure
+     * @param line The 1-based line of the failure
+     * @param column The 1-based column of the failure
+     * @param expected Descriptions of what was expected at the position
+     */
+    ParseError(final int position, final int line, final int column, final List<String> expected) {
+        this.position = position;
+        this.line = line;
+        this.column = column;
+        this.expected = expected;
+    }
+
+    /**
+     * Returns the position of the failure.
+     * @return The offset in the input
+     */
+    public int position() {
+        return this.position;
+    }
+
+    /**
+     * Returns the line of the failure.
+     * @return The 1-based line
+     */
+    public int line() {
+        return this.line;
+    }
+
+    /**
+     * Returns the column of the failure.
+     * @return The 1-based column
+     */
+    public int column() {
+        return this.column;
+    }
+
+    /**
+     * Returns what was expected at the position of the failure.
+     * @return The descriptions, in the order the alternatives were tried
+     */
+    public List<String> expected() {
+        return this.expected;
+    }
+
+    @Override
+    public String toString() {
+        final String what = this.expected.size() == 1 ? this.expected.get(0) : "one of " + this.expected;
+        return "line " + this.line + ", column " + this.column + ": expected " + what;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.position + this.expected.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final ParseError other = (ParseError) obj;
+        return this.position == other.position && this.expected.equals(other.expected);
+    }
+}
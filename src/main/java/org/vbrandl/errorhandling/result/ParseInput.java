@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Input of a {@link Parser}, addressed by an integer cursor. Characters and bytes are read in place, nothing is
+ * copied until a parser extracts text.
+ */
+public abstract class ParseInput {
+    /**
+     * Ctor.
+     */
+    ParseInput() {}
+
+    /**
+     * Creates an input over characters.
+     * @param text The characters
+     * @return A new input
+     */
+    public static ParseInput of(final CharSequence text) {
+        return new Chars(text);
+    }
+
+    /**
+     * Creates an input over the remaining bytes of a buffer. Bytes are read as unsigned values and text is decoded as
+     * ISO-8859-1, so ASCII grammars work unchanged. The position of the buffer is not modified.
+     * @param bytes The bytes
+     * @return A new input
+     */
+    public static ParseInput of(final ByteBuffer bytes) {
+        return new Bytes(bytes);
+    }
+
+    /**
+     * Returns the length of the input.
+     * @return The number of characters or bytes
+     */
+    abstract int length();
+
+    /**
+     * Returns the character or unsigned byte at a position.
+     * @param index The position, in {@code [0, length())}
+     * @return The character or byte
+     */
+    abstract int at(int index);
+
+    /**
+     * Extracts a range of the input as text.
+     * @param start The first position
+     * @param end The position after the last character
+     * @return The text
+     */
+    abstract String text(int start, int end);
+
+    /**
+     * Input over a {@link CharSequence}.
+     */
+    private static final class Chars extends ParseInput {
+        /**
+         * The characters.
+         */
+        private final CharSequence text;
+
+        /**
+         * Ctor.
+         * @param text The characters
+         */
+        Chars(final CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        int length() {
+            return this.text.length();
+        }
+
+        @Override
+        int at(final int index) {
+            return this.text.charAt(index);
+        }
+
+        @Override
+        String text(final int start, final int end) {
+            return this.text.subSequence(start, end).toString();
+        }
+    }
+
+    /**
+     * Input over a {@link ByteBuffer}.
+     */
+    private static final class Bytes extends ParseInput {
+        /**
+         * The bytes.
+         */
+        private final ByteBuffer bytes;
+
+        /**
+         * Position of the first byte in the buffer.
+         */
+        private final int base;
+
+        /**
+         * Number of bytes.
+         */
+        private final int length;
+
+        /**
+         * Ctor.
+         * @param bytes The bytes
+         */
+        Bytes(final ByteBuffer bytes) {
+            this.bytes = bytes;
+            this.base = bytes.position();
+            this.length = bytes.remaining();
+        }
+
+        @Override
+        int length() {
+            return this.length;
+        }
+
+        @Override
+        int at(final int index) {
+            return this.bytes.get(this.base + index) & 0xFF;
+        }
+
+        @Override
+        String text(final int start, final int end) {
+            final char[] chars = new char[end - start];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = (char) at(start + i);
+            }
+            return new String(chars);
+        }
+    }
+}
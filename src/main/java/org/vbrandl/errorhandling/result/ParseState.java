@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mutable state of a single parse. A parser reads from {@link #pos}, and on success advances it and stores its value
+ * in {@link #value}. A failure only returns {@code false} and records what was expected if it is at or beyond the
+ * furthest failure so far, so trying an alternative allocates nothing.
+ */
+final class ParseState {
+    /**
+     * Maximum number of expectations kept for the furthest failure.
+     */
+    private static final int MAX_EXPECTED = 8;
+
+    /**
+     * The input.
+     */
+    final ParseInput input;
+
+    /**
+     * The current position.
+     */
+    int pos;
+
+    /**
+     * The value of the last successful parser.
+     */
+    Object value;
+
+    /**
+     * Position of the furthest failure, {@code -1} if there was none.
+     */
+    private int furthest = -1;
+
+    /**
+     * What was expected at the furthest failure.
+     */
+    private final String[] expected = new String[MAX_EXPECTED];
+
+    /**
+     * Number of valid entries in {@code expected}.
+     */
+    private int count;
+
+    /**
+     * Memo tables of the memoizing parsers, created on first use.
+     */
+    private Map<Object, Memo> memos;
+
+    /**
+     * Ctor.
+     * @param input The input
+     */
+    ParseState(final ParseInput input) {
+        this.input = input;
+    }
+
+    /**
+     * Records a failure at a position.
+     * @param position The position of the failure
+     * @param what What was expected
+     * @return Always {@code false}
+     */
+    boolean fail(final int position, final String what) {
+        if (position > this.furthest) {
+            this.furthest = position;
+            this.count = 0;
+        }
+        if (position == this.furthest && this.count < MAX_EXPECTED) {
+            for (int i = 0; i < this.count; i++) {
+                if (this.expected[i].equals(what)) {
+                    return false;
+                }
+            }
+            this.expected[this.count++] = what;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the position of the furthest failure.
+     * @return The position or {@code -1}
+     */
+    int furthest() {
+        return this.furthest;
+    }
+
+    /**
+     * Returns the number of expectations at the furthest failure.
+     * @return The number of expectations
+     */
+    int count() {
+        return this.count;
+    }
+
+    /**
+     * Replaces the expectations a parser recorded at its start position by a single description.
+     * @param start The start position of the parser
+     * @param furthest The furthest failure before the parser ran
+     * @param count The number of expectations before the parser ran
+     * @param what The description
+     * @return Always {@code false}
+     */
+    boolean relabel(final int start, final int furthest, final int count, final String what) {
+        if (this.furthest == start) {
+            this.furthest = furthest;
+            this.count = count;
+        }
+        return fail(start, what);
+    }
+
+    /**
+     * Returns the memo table of a parser.
+     * @param owner The memoizing parser
+     * @return The memo table
+     */
+    Memo memo(final Object owner) {
+        if (this.memos == null) {
+            this.memos = new IdentityHashMap<>();
+        }
+        return this.memos.computeIfAbsent(owner, key -> new Memo(this.input.length() + 1));
+    }
+
+    /**
+     * Creates the error for the furthest failure.
+     * @return The error
+     */
+    ParseError error() {
+        final int position = Math.max(0, this.furthest);
+        int line = 1;
+        int column = 1;
+        for (int i = 0; i < position && i < this.input.length(); i++) {
+            if (this.input.at(i) == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+        }
+        final List<String> what = Collections.unmodifiableList(new ArrayList<>(
+            Arrays.asList(this.expected).subList(0, this.count)));
+        return new ParseError(position, line, column, what);
+    }
+
+    /**
+     * Results of a memoizing parser per start position.
+     */
+    static final class Memo {
+        /**
+         * Per position: {@code 0} if unknown, {@code -1} for a failure, else the end position plus one.
+         */
+        final int[] ends;
+
+        /**
+         * Per position: the value of a success.
+         */
+        final Object[] values;
+
+        /**
+         * Ctor.
+         * @param size The number of positions
+         */
+        Memo(final int size) {
+            this.ends = new int[size];
+            this.values = new Object[size];
+        }
+    }
+}
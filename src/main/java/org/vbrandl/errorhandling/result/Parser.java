@@ -0,0 +1,559 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * Parser combinator that produces a {@link Result}. Parsers run on a mutable state with an integer cursor: a failed
+ * alternative only resets the cursor, it allocates neither a result nor a copy of the remaining input nor an error
+ * message. Only the furthest failure is kept and turned into a {@link ParseError} at the end. Alternatives are
+ * ordered and always backtrack, like in a parsing expression grammar; left recursion is not supported.
+ * <p>
+ * Parsers are immutable and can be shared between threads. {@link #memo()} caches the outcome per position for
+ * packrat parsing of grammars that would otherwise parse the same input repeatedly.
+ * @param <T> The type of the parsed value
+ */
+public final class Parser<T> {
+    /**
+     * Parses the input at the cursor of a state.
+     */
+    @FunctionalInterface
+    private interface Rule {
+        /**
+         * Parses the input at the cursor.
+         * @param state The state of the parse
+         * @return {@code true} on success, with the cursor advanced and the value set
+         */
+        boolean apply(ParseState state);
+    }
+
+    /**
+     * The rule of this parser.
+     */
+    private final Rule rule;
+
+    /**
+     * Ctor.
+     * @param rule The rule of this parser
+     */
+    private Parser(final Rule rule) {
+        this.rule = rule;
+    }
+
+    /**
+     * Parses a literal.
+     * @param text The literal
+     * @return A parser producing {@code text}
+     */
+    public static Parser<String> literal(final String text) {
+        final String what = "'" + text + "'";
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            if (start + text.length() > state.input.length()) {
+                return state.fail(start, what);
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (state.input.at(start + i) != text.charAt(i)) {
+                    return state.fail(start, what);
+                }
+            }
+            state.pos = start + text.length();
+            state.value = text;
+            return true;
+        });
+    }
+
+    /**
+     * Parses a single character.
+     * @param expected The character
+     * @return A parser producing {@code expected}
+     */
+    public static Parser<Character> character(final char expected) {
+        return satisfy(c -> c == expected, "'" + expected + "'");
+    }
+
+    /**
+     * Parses a single character that matches a predicate.
+     * @param predicate The predicate
+     * @param what Description of the expected character for errors
+     * @return A parser producing the character
+     */
+    public static Parser<Character> satisfy(final IntPredicate predicate, final String what) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            if (start >= state.input.length() || !predicate.test(state.input.at(start))) {
+                return state.fail(start, what);
+            }
+            state.pos = start + 1;
+            state.value = (char) state.input.at(start);
+            return true;
+        });
+    }
+
+    /**
+     * Parses one or more characters that match a predicate.
+     * @param predicate The predicate
+     * @param what Description of the expected characters for errors
+     * @return A parser producing the matched text
+     */
+    public static Parser<String> span(final IntPredicate predicate, final String what) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            final int end = skip(state, predicate);
+            if (end == start) {
+                return state.fail(start, what);
+            }
+            state.pos = end;
+            state.value = state.input.text(start, end);
+            return true;
+        });
+    }
+
+    /**
+     * Skips zero or more characters that match a predicate, e.g. whitespace. Never fails.
+     * @param predicate The predicate
+     * @return A parser producing {@code null}
+     */
+    public static Parser<Void> skipWhile(final IntPredicate predicate) {
+        return new Parser<>(state -> {
+            state.pos = skip(state, predicate);
+            state.value = null;
+            return true;
+        });
+    }
+
+    /**
+     * Parses a decimal integer with an optional minus sign without creating intermediate text.
+     * @return A parser producing the integer
+     */
+    public static Parser<Long> integer() {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            final int length = state.input.length();
+            final boolean negative = start < length && state.input.at(start) == '-';
+            int pos = negative ? start + 1 : start;
+            long value = 0;
+            while (pos < length && state.input.at(pos) >= '0' && state.input.at(pos) <= '9') {
+                final int digit = state.input.at(pos) - '0';
+                if (value > (Long.MAX_VALUE - digit) / 10) {
+                    return state.fail(start, "integer");
+                }
+                value = value * 10 + digit;
+                pos++;
+            }
+            if (pos == start || negative && pos == start + 1) {
+                return state.fail(start, "integer");
+            }
+            state.pos = pos;
+            state.value = negative ? -value : value;
+            return true;
+        });
+    }
+
+    /**
+     * Succeeds only at the end of the input.
+     * @return A parser producing {@code null}
+     */
+    public static Parser<Void> end() {
+        return new Parser<>(state -> {
+            if (state.pos < state.input.length()) {
+                return state.fail(state.pos, "end of input");
+            }
+            state.value = null;
+            return true;
+        });
+    }
+
+    /**
+     * Defers the creation of a parser, e.g. for recursive grammars.
+     * @param parser Creates the parser on first use
+     * @param <T> The type of the parsed value
+     * @return A parser delegating to the created parser
+     */
+    public static <T> Parser<T> lazy(final Supplier<Parser<T>> parser) {
+        return new Parser<>(new Lazy<>(parser));
+    }
+
+    /**
+     * Parses the whole input.
+     * @param text The input
+     * @return The parsed value or the furthest failure
+     */
+    public Result<T, ParseError> parse(final CharSequence text) {
+        return parse(ParseInput.of(text));
+    }
+
+    /**
+     * Parses all remaining bytes of a buffer.
+     * @param bytes The input
+     * @return The parsed value or the furthest failure
+     */
+    public Result<T, ParseError> parse(final ByteBuffer bytes) {
+        return parse(ParseInput.of(bytes));
+    }
+
+    /**
+     * Parses the whole input.
+     * @param input The input
+     * @return The parsed value or the furthest failure
+     */
+    public Result<T, ParseError> parse(final ParseInput input) {
+        final ParseState state = new ParseState(input);
+        if (this.rule.apply(state)) {
+            if (state.pos == input.length()) {
+                return new Ok<>(value(state));
+            }
+            state.fail(state.pos, "end of input");
+        }
+        return new Err<>(state.error());
+    }
+
+    /**
+     * Transforms the parsed value.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new value
+     * @return A new parser
+     */
+    public <U> Parser<U> map(final Function<? super T, ? extends U> mapFn) {
+        return new Parser<>(state -> {
+            if (!this.rule.apply(state)) {
+                return false;
+            }
+            state.value = mapFn.apply(value(state));
+            return true;
+        });
+    }
+
+    /**
+     * Validates or converts the parsed value. An {@link Err} fails the parser at its start position with the error
+     * as description.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new value
+     * @return A new parser
+     */
+    public <U> Parser<U> andThen(final Function<? super T, Result<U, String>> mapFn) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            if (!this.rule.apply(state)) {
+                return false;
+            }
+            final Result<U, String> result = mapFn.apply(value(state));
+            if (result.isErr()) {
+                state.pos = start;
+                return state.fail(start, result.getErr());
+            }
+            state.value = result.unwrapOr(null);
+            return true;
+        });
+    }
+
+    /**
+     * Parses this, then another parser, and combines both values.
+     * @param next The parser to run after this one
+     * @param combineFn Combines both values
+     * @param <U> The type of the value of {@code next}
+     * @param <R> The type of the combined value
+     * @return A new parser
+     */
+    public <U, R> Parser<R> seq(final Parser<U> next, final BiFunction<? super T, ? super U, ? extends R> combineFn) {
+        return new Parser<>(state -> {
+            if (!this.rule.apply(state)) {
+                return false;
+            }
+            final T first = value(state);
+            if (!next.rule.apply(state)) {
+                return false;
+            }
+            state.value = combineFn.apply(first, value(state));
+            return true;
+        });
+    }
+
+    /**
+     * Parses this, then another parser, and keeps the value of the other parser.
+     * @param next The parser to run after this one
+     * @param <U> The type of the value of {@code next}
+     * @return A new parser
+     */
+    public <U> Parser<U> then(final Parser<U> next) {
+        return new Parser<>(state -> this.rule.apply(state) && next.rule.apply(state));
+    }
+
+    /**
+     * Parses this, then another parser, and keeps the value of this parser.
+     * @param next The parser to run after this one
+     * @return A new parser
+     */
+    public Parser<T> skip(final Parser<?> next) {
+        return new Parser<>(state -> {
+            if (!this.rule.apply(state)) {
+                return false;
+            }
+            final Object first = state.value;
+            if (!next.rule.apply(state)) {
+                return false;
+            }
+            state.value = first;
+            return true;
+        });
+    }
+
+    /**
+     * Parses this between two other parsers, e.g. brackets.
+     * @param open The parser before this one
+     * @param close The parser after this one
+     * @return A new parser
+     */
+    public Parser<T> between(final Parser<?> open, final Parser<?> close) {
+        return open.then(this).skip(close);
+    }
+
+    /**
+     * Tries another parser at the same position if this one fails.
+     * @param other The alternative
+     * @return A new parser
+     */
+    public Parser<T> or(final Parser<? extends T> other) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            if (this.rule.apply(state)) {
+                return true;
+            }
+            state.pos = start;
+            return other.rule.apply(state);
+        });
+    }
+
+    /**
+     * Produces a default value if this parser fails.
+     * @param other The default value
+     * @return A new parser that never fails
+     */
+    public Parser<T> optional(final T other) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            if (!this.rule.apply(state)) {
+                state.pos = start;
+                state.value = other;
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Applies this parser zero or more times.
+     * @return A new parser producing the values in order
+     */
+    public Parser<List<T>> many() {
+        return new Parser<>(state -> {
+            state.value = repeat(state, new ArrayList<>(), null);
+            return true;
+        });
+    }
+
+    /**
+     * Applies this parser one or more times.
+     * @return A new parser producing the values in order
+     */
+    public Parser<List<T>> many1() {
+        return new Parser<>(state -> {
+            if (!this.rule.apply(state)) {
+                return false;
+            }
+            final List<T> values = new ArrayList<>();
+            values.add(value(state));
+            state.value = repeat(state, values, null);
+            return true;
+        });
+    }
+
+    /**
+     * Applies this parser zero or more times, separated by another parser.
+     * @param separator The separator
+     * @return A new parser producing the values in order
+     */
+    public Parser<List<T>> sepBy(final Parser<?> separator) {
+        return new Parser<>(state -> {
+            final List<T> values = new ArrayList<>();
+            final int start = state.pos;
+            if (!this.rule.apply(state)) {
+                state.pos = start;
+                state.value = values;
+                return true;
+            }
+            values.add(value(state));
+            state.value = repeat(state, values, separator);
+            return true;
+        });
+    }
+
+    /**
+     * Replaces what this parser expects by a single description if it fails without consuming input, e.g.
+     * {@code "number"} instead of the individual digits.
+     * @param what The description
+     * @return A new parser
+     */
+    public Parser<T> label(final String what) {
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            final int furthest = state.furthest();
+            final int count = state.count();
+            return this.rule.apply(state) || state.relabel(start, furthest, count, what);
+        });
+    }
+
+    /**
+     * Caches the outcome of this parser per position, for packrat parsing. The cache lives as long as a single call
+     * of {@link #parse(ParseInput)} and takes memory proportional to the input.
+     * @return A new parser
+     */
+    public Parser<T> memo() {
+        final Object owner = new Object();
+        return new Parser<>(state -> {
+            final int start = state.pos;
+            final ParseState.Memo memo = state.memo(owner);
+            final int known = memo.ends[start];
+            if (known < 0) {
+                return false;
+            }
+            if (known > 0) {
+                state.pos = known - 1;
+                state.value = memo.values[start];
+                return true;
+            }
+            if (this.rule.apply(state)) {
+                memo.ends[start] = state.pos + 1;
+                memo.values[start] = state.value;
+                return true;
+            }
+            memo.ends[start] = -1;
+            return false;
+        });
+    }
+
+    /**
+     * Applies this parser repeatedly until it fails or stops consuming input.
+     * @param state The state of the parse
+     * @param values Receives the values
+     * @param separator Parser between two values or {@code null}
+     * @return {@code values}
+     */
+    private List<T> repeat(final ParseState state, final List<T> values, final Parser<?> separator) {
+        while (true) {
+            final int start = state.pos;
+            if (separator != null && !separator.rule.apply(state) || !this.rule.apply(state)) {
+                state.pos = start;
+                return values;
+            }
+            values.add(value(state));
+            if (state.pos == start) {
+                return values;
+            }
+        }
+    }
+
+    /**
+     * Returns the end of the characters matching a predicate.
+     * @param state The state of the parse
+     * @param predicate The predicate
+     * @return The position of the first character that does not match
+     */
+    private static int skip(final ParseState state, final IntPredicate predicate) {
+        int pos = state.pos;
+        while (pos < state.input.length() && predicate.test(state.input.at(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * Returns the value of the last successful parser.
+     * @param state The state of the parse
+     * @param <V> The type of the value
+     * @return The value
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V value(final ParseState state) {
+        return (V) state.value;
+    }
+
+    /**
+     * Rule that creates its parser on first use.
+     * @param <T> The type of the parsed value
+     */
+    private static final class Lazy<T> implements Rule {
+        /**
+         * Creates the parser.
+         */
+        private final Supplier<Parser<T>> supplier;
+
+        /**
+         * The created parser.
+         */
+        private volatile Parser<T> parser;
+
+        /**
+         * Ctor.
+         * @param supplier Creates the parser
+         */
+        Lazy(final Supplier<Parser<T>> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean apply(final ParseState state) {
+            Parser<T> current = this.parser;
+            if (current == null) {
+                current = this.supplier.get();
+                this.parser = current;
+            }
+            return current.rule.apply(state);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * The {@link Ok} values and {@link Err} values of a collection of results, each in encounter order. Empty
+ * {@link Ok}s contribute a {@code null} value.
+ * @param <T> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class Partition<T, E> {
+    /**
+     * The Ok values.
+     */
+    private final List<T> oks = new ArrayList<>();
+
+    /**
+     * The Err values.
+     */
+    private final List<E> errs = new ArrayList<>();
+
+    /**
+     * Ctor.
+     */
+    Partition() {}
+
+    /**
+     * Partitions the given results.
+     * @param results The results to partition
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@code Partition}
+     */
+    public static <T, E> Partition<T, E> of(final Iterable<? extends Result<? extends T, ? extends E>> results) {
+        final Partition<T, E> partition = new Partition<>();
+        for (final Result<? extends T, ? extends E> result : results) {
+            partition.add(result);
+        }
+        return partition;
+    }
+
+    /**
+     * Returns a {@link Collector} that partitions a stream of results.
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@link Collector}
+     */
+    public static <T, E> Collector<Result<? extends T, ? extends E>, ?, Partition<T, E>> collector() {
+        return Collector.of(Partition::new, Partition::add, Partition::merge);
+    }
+
+    /**
+     * Returns the Ok values.
+     * @return An unmodifiable list of the Ok values
+     */
+    public List<T> oks() {
+        return Collections.unmodifiableList(this.oks);
+    }
+
+    /**
+     * Returns the Err values.
+     * @return An unmodifiable list of the Err values
+     */
+    public List<E> errs() {
+        return Collections.unmodifiableList(this.errs);
+    }
+
+    /**
+     * Checks if no {@link Err} was partitioned.
+     * @return {@code true} if there are no Err values
+     */
+    public boolean allOk() {
+        return this.errs.isEmpty();
+    }
+
+    /**
+     * Adds a result.
+     * @param result The result to add
+     */
+    void add(final Result<? extends T, ? extends E> result) {
+        if (result.isOk()) {
+            this.oks.add(result.unwrapOr(null));
+        } else {
+            this.errs.add(result.getErr());
+        }
+    }
+
+    /**
+     * Adds the values of another partition.
+     * @param other The partition to add
+     * @return This partition
+     */
+    Partition<T, E> merge(final Partition<T, E> other) {
+        this.oks.addAll(other.oks);
+        this.errs.addAll(other.errs);
+        return this;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.oks.hashCode() + this.errs.hashCode();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final Partition<T, E> other = (Partition<T, E>) obj;
+        return this.oks.equals(other.oks) && this.errs.equals(other.errs);
+    }
+}
@@ -0,0 +1,493 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Multi-stage processing pipeline whose stages are connected by preallocated {@link RingBuffer}s. Every stage is a
+ * function returning a {@link Result} and runs on its own threads. An {@link Ok} is handed to the next stage, an
+ * {@link Err} skips the remaining stages and goes to the error sink. An empty {@link Ok} from any but the last stage
+ * drops the item. Workers drain their input in batches and back off by parking when idle.
+ * <p>
+ * A pipeline is immutable, {@link #then(Function, int)} returns a new pipeline with one more stage. {@link #start}
+ * creates the buffers and threads. The sinks are called from the worker threads of the last stage, or of the stage
+ * that produced the error, and must therefore be thread safe. Stage functions should return an {@link Err} instead
+ * of throwing. A {@link RuntimeException} thrown by a stage function or a sink is passed to the worker's uncaught
+ * exception handler, the item is dropped and counted in {@link Running#failed()}, and the worker continues. An
+ * {@link Error} kills the worker. Once all workers of a stage are dead, the upstream stages fail as soon as they would
+ * block on it and {@link Running#close()} reports the failure.
+ * @param <T> The type of the submitted items
+ * @param <R> The type of the Ok value of the last stage
+ * @param <E> The type of the Err value
+ */
+public final class Pipeline<T, R, E> {
+    /**
+     * Time a worker parks when its input is empty.
+     */
+    private static final long IDLE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /**
+     * Number of empty polls a worker spins before parking.
+     */
+    private static final int SPINS = 100;
+
+    /**
+     * Capacity of the buffer in front of each stage.
+     */
+    private final int capacity;
+
+    /**
+     * Maximum number of items a worker takes from its input at once.
+     */
+    private final int batchSize;
+
+    /**
+     * The stages in order.
+     */
+    private final List<Stage<E>> stages;
+
+    /**
+     * Ctor.
+     * @param capacity Capacity of the buffer in front of each stage
+     * @param batchSize Maximum number of items a worker takes from its input at once
+     * @param stages The stages in order
+     */
+    private Pipeline(final int capacity, final int batchSize, final List<Stage<E>> stages) {
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.stages = stages;
+    }
+
+    /**
+     * Creates a pipeline without stages.
+     * @param capacity Capacity of the buffer in front of each stage, rounded up to a power of two
+     * @param batchSize Maximum number of items a worker takes from its input at once
+     * @param <T> The type of the submitted items
+     * @param <E> The type of the Err value
+     * @return A new pipeline
+     */
+    public static <T, E> Pipeline<T, T, E> create(final int capacity, final int batchSize) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in (0, 2^30]");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        return new Pipeline<>(capacity, batchSize, Collections.emptyList());
+    }
+
+    /**
+     * Appends a stage.
+     * @param fn The function of the stage
+     * @param threads Number of threads running the stage
+     * @param <U> The type of the Ok value of the new stage
+     * @return A new pipeline with the stage appended
+     */
+    @SuppressWarnings("unchecked")
+    public <U> Pipeline<T, U, E> then(final Function<? super R, ? extends Result<U, E>> fn, final int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        final List<Stage<E>> next = new ArrayList<>(this.stages);
+        next.add(new Stage<>((Function<Object, ? extends Result<?, E>>) fn, threads));
+        return new Pipeline<>(this.capacity, this.batchSize, Collections.unmodifiableList(next));
+    }
+
+    /**
+     * Returns the number of stages.
+     * @return The number of stages
+     */
+    public int stages() {
+        return this.stages.size();
+    }
+
+    /**
+     * Creates the buffers and starts the worker threads.
+     * @param sink Receives the Ok values of the last stage
+     * @param errorSink Receives the errors of all stages
+     * @return The running pipeline
+     */
+    public Running<T> start(final Consumer<? super R> sink, final Consumer<? super E> errorSink) {
+        if (this.stages.isEmpty()) {
+            throw new IllegalStateException("pipeline has no stages");
+        }
+        return new Running<>(this, sink, errorSink);
+    }
+
+    /**
+     * A stage of the pipeline.
+     * @param <E> The type of the Err value
+     */
+    private static final class Stage<E> {
+        /**
+         * The function of the stage.
+         */
+        private final Function<Object, ? extends Result<?, E>> fn;
+
+        /**
+         * Number of threads running the stage.
+         */
+        private final int threads;
+
+        /**
+         * Ctor.
+         * @param fn The function of the stage
+         * @param threads Number of threads running the stage
+         */
+        Stage(final Function<Object, ? extends Result<?, E>> fn, final int threads) {
+            this.fn = fn;
+            this.threads = threads;
+        }
+    }
+
+    /**
+     * A started pipeline.
+     * @param <T> The type of the submitted items
+     */
+    public static final class Running<T> implements AutoCloseable {
+        /**
+         * Input buffer of every stage.
+         */
+        private final List<RingBuffer<Object>> buffers;
+
+        /**
+         * Number of live workers of every stage.
+         */
+        private final AtomicInteger[] alive;
+
+        /**
+         * All worker threads.
+         */
+        private final List<Thread> workers = new ArrayList<>();
+
+        /**
+         * Number of {@link #offer(Object)} calls currently in progress.
+         */
+        private final AtomicInteger offering = new AtomicInteger();
+
+        /**
+         * Number of items dropped because a stage function or a sink threw.
+         */
+        private final LongAdder failed = new LongAdder();
+
+        /**
+         * The first throwable that killed a worker or {@code null}.
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Whether no more items are accepted.
+         */
+        private volatile boolean closed;
+
+        /**
+         * Ctor.
+         * @param pipeline The pipeline to run
+         * @param sink Receives the Ok values of the last stage
+         * @param errorSink Receives the errors of all stages
+         * @param <R> The type of the Ok value of the last stage
+         * @param <E> The type of the Err value
+         */
+        @SuppressWarnings("unchecked")
+        private <R, E> Running(final Pipeline<T, R, E> pipeline, final Consumer<? super R> sink,
+                       final Consumer<? super E> errorSink) {
+            final int count = pipeline.stages.size();
+            this.buffers = new ArrayList<>(count);
+            this.alive = new AtomicInteger[count];
+            for (int i = 0; i < count; i++) {
+                this.buffers.add(new RingBuffer<>(pipeline.capacity));
+                this.alive[i] = new AtomicInteger(pipeline.stages.get(i).threads);
+            }
+            final Consumer<Object> last = (Consumer<Object>) sink;
+            for (int i = 0; i < count; i++) {
+                final Stage<E> stage = pipeline.stages.get(i);
+                final Worker<E> worker = new Worker<>(this, i, stage.fn, pipeline.batchSize,
+                                                      i + 1 < count ? this.buffers.get(i + 1)::offer : null, last,
+                                                      errorSink);
+                for (int j = 0; j < stage.threads; j++) {
+                    final Thread thread = new Thread(worker, "pipeline-stage-" + i + "-" + j);
+                    thread.setDaemon(true);
+                    this.workers.add(thread);
+                }
+            }
+            for (final Thread thread : this.workers) {
+                thread.start();
+            }
+        }
+
+        /**
+         * Submits an item, waiting while the first buffer is full.
+         * @param item The item, not {@code null}
+         * @throws IllegalStateException if the pipeline is closed or all workers of the first stage died
+         */
+        public void submit(final T item) {
+            while (!offer(item)) {
+                LockSupport.parkNanos(this, IDLE_NANOS);
+            }
+        }
+
+        /**
+         * Submits an item if the first buffer has space.
+         * @param item The item, not {@code null}
+         * @return {@code true} if submitted, {@code false} if the first buffer is full
+         * @throws IllegalStateException if the pipeline is closed or all workers of the first stage died
+         */
+        public boolean offer(final T item) {
+            if (item == null) {
+                throw new NullPointerException("item");
+            }
+            // registered before checking closed, so the first stage does not finish while the item is inserted
+            this.offering.incrementAndGet();
+            try {
+                if (this.closed) {
+                    throw new IllegalStateException("pipeline is closed");
+                }
+                checkAlive(0);
+                return this.buffers.get(0).offer(item);
+            } finally {
+                this.offering.decrementAndGet();
+            }
+        }
+
+        /**
+         * Returns the number of items that were dropped because a stage function or a sink threw an exception.
+         * @return The number of items
+         */
+        public long failed() {
+            return this.failed.sum();
+        }
+
+        /**
+         * Stops accepting items and waits until all submitted items passed the pipeline. If interrupted while
+         * waiting, returns early with the interrupt flag set while the workers keep draining.
+         * @throws IllegalStateException if a worker died, items may have been lost
+         */
+        @Override
+        public void close() {
+            this.closed = true;
+            try {
+                for (final Thread thread : this.workers) {
+                    thread.join();
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            final Throwable cause = this.failure.get();
+            if (cause != null) {
+                throw new IllegalStateException("pipeline worker died", cause);
+            }
+        }
+
+        /**
+         * Checks whether a stage has no more input to expect.
+         * @param stage The index of the stage
+         * @return {@code true} if all upstream producers finished
+         */
+        boolean upstreamDone(final int stage) {
+            if (stage == 0) {
+                return this.closed && this.offering.get() == 0;
+            }
+            return this.alive[stage - 1].get() == 0;
+        }
+
+        /**
+         * Fails if all workers of a stage died. Only valid while the upstream of the stage is still running, as the
+         * workers of a stage only finish regularly after their upstream.
+         * @param stage The index of the stage
+         * @throws IllegalStateException if the stage has no live workers
+         */
+        void checkAlive(final int stage) {
+            if (this.alive[stage].get() == 0) {
+                throw new IllegalStateException("all workers of stage " + stage + " died", this.failure.get());
+            }
+        }
+    }
+
+    /**
+     * Loop of the threads of one stage.
+     * @param <E> The type of the Err value
+     */
+    private static final class Worker<E> implements Runnable {
+        /**
+         * The running pipeline.
+         */
+        private final Running<?> running;
+
+        /**
+         * The index of the stage.
+         */
+        private final int stage;
+
+        /**
+         * The function of the stage.
+         */
+        private final Function<Object, ? extends Result<?, E>> fn;
+
+        /**
+         * Maximum number of items taken from the input at once.
+         */
+        private final int batchSize;
+
+        /**
+         * Inserts into the input of the next stage, {@code null} for the last stage.
+         */
+        private final Predicate<Object> next;
+
+        /**
+         * Receives the Ok values of the last stage.
+         */
+        private final Consumer<Object> sink;
+
+        /**
+         * Receives the errors.
+         */
+        private final Consumer<? super E> errorSink;
+
+        /**
+         * Ctor.
+         * @param running The running pipeline
+         * @param stage The index of the stage
+         * @param fn The function of the stage
+         * @param batchSize Maximum number of items taken from the input at once
+         * @param next Inserts into the input of the next stage, {@code null} for the last stage
+         * @param sink Receives the Ok values of the last stage
+         * @param errorSink Receives the errors
+         */
+        Worker(final Running<?> running, final int stage, final Function<Object, ? extends Result<?, E>> fn,
+               final int batchSize, final Predicate<Object> next, final Consumer<Object> sink,
+               final Consumer<? super E> errorSink) {
+            this.running = running;
+            this.stage = stage;
+            this.fn = fn;
+            this.batchSize = batchSize;
+            this.next = next;
+            this.sink = sink;
+            this.errorSink = errorSink;
+        }
+
+        @Override
+        public void run() {
+            final RingBuffer<Object> input = this.running.buffers.get(this.stage);
+            try {
+                int idle = 0;
+                while (true) {
+                    if (input.drain(this::process, this.batchSize) > 0) {
+                        idle = 0;
+                    } else if (this.running.upstreamDone(this.stage) && input.size() == 0) {
+                        return;
+                    } else if (++idle < SPINS) {
+                        Thread.yield();
+                    } else {
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    }
+                }
+            } catch (final Throwable ex) {
+                this.running.failure.compareAndSet(null, ex);
+                throw ex;
+            } finally {
+                this.running.alive[this.stage].decrementAndGet();
+            }
+        }
+
+        /**
+         * Runs the stage function on one item and routes the result.
+         * @param item The item
+         */
+        private void process(final Object item) {
+            final Result<?, E> result;
+            try {
+                result = this.fn.apply(item);
+            } catch (final RuntimeException ex) {
+                dropped(ex);
+                return;
+            }
+            if (result.isErr()) {
+                deliver(this.errorSink, result.getErr());
+            } else if (this.next == null) {
+                deliver(this.sink, result.ok().orElse(null));
+            } else if (result.hasValue()) {
+                final Object value = result.getOk();
+                while (!this.next.test(value)) {
+                    this.running.checkAlive(this.stage + 1);
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+            }
+        }
+
+        /**
+         * Passes a value to a sink, a failure of the sink drops the item.
+         * @param sink The sink
+         * @param value The value
+         * @param <V> The type of the value
+         */
+        private <V> void deliver(final Consumer<? super V> sink, final V value) {
+            try {
+                sink.accept(value);
+            } catch (final RuntimeException ex) {
+                dropped(ex);
+            }
+        }
+
+        /**
+         * Counts an item dropped because of an exception and passes the exception to the uncaught exception
+         * handler.
+         * @param ex The exception
+         */
+        private void dropped(final RuntimeException ex) {
+            this.running.failed.increment();
+            final Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+        }
+    }
+}
@@ -41,10 +41,15 @@
 
 package org.vbrandl.errorhandling.result;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A Result data type with the potential to replace exception based error handling with a monadic error type like in
@@ -66,6 +71,544 @@ public abstract class Result<T, E> {
         return new Ok<>(value);
     }
 
+    /**
+     * Runs a block in a {@link BindScope}. Inside the block, {@link BindScope#bind(Result)} unwraps {@link Ok} values
+     * and leaves the block with the first {@link Err}, which then becomes the result of this method.
+     * @param block The block to run
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return The result of the block or the {@link Err} that left it
+     */
+    public static final <T, E> Result<T, E> run(final Function<BindScope<E>, Result<T, E>> block) {
+        final BindScope<E> scope = new BindScope<>();
+        try {
+            return block.apply(scope);
+        } catch (final BindExit exit) {
+            final Result<T, E> failure = scope.failure();
+            if (failure == null) {
+                // left through the scope of an enclosing block
+                throw exit;
+            }
+            return failure;
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Combines 2 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final BiFunction<T1, T2, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 2 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final BiFunction<T1, T2, R> fn) {
+        if (r1.isOk() && r2.isOk()) {
+            return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2));
+    }
+
+    /**
+     * Combines 3 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3,
+            final Functions.Function3<T1, T2, T3, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 3 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3,
+            final Functions.Function3<T1, T2, T3, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk()) {
+            return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3));
+    }
+
+    /**
+     * Combines 4 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, T4, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Functions.Function4<T1, T2, T3, T4, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        if (r4.isErr()) {
+            return propagate(r4);
+        }
+        return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 4 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, T4, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Functions.Function4<T1, T2, T3, T4, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk() && r4.isOk()) {
+            return new Ok<>(fn.apply(r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3, r4));
+    }
+
+    /**
+     * Combines 5 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, T4, T5, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Functions.Function5<T1, T2, T3, T4, T5, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        if (r4.isErr()) {
+            return propagate(r4);
+        }
+        if (r5.isErr()) {
+            return propagate(r5);
+        }
+        return new Ok<>(fn.apply(
+            r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 5 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, T4, T5, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Functions.Function5<T1, T2, T3, T4, T5, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk() && r4.isOk() && r5.isOk()) {
+            return new Ok<>(fn.apply(
+                r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3, r4, r5));
+    }
+
+    /**
+     * Combines 6 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, T4, T5, T6, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Functions.Function6<T1, T2, T3, T4, T5, T6, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        if (r4.isErr()) {
+            return propagate(r4);
+        }
+        if (r5.isErr()) {
+            return propagate(r5);
+        }
+        if (r6.isErr()) {
+            return propagate(r6);
+        }
+        return new Ok<>(fn.apply(
+            r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+            r6.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 6 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, T4, T5, T6, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Functions.Function6<T1, T2, T3, T4, T5, T6, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk() && r4.isOk() && r5.isOk() && r6.isOk()) {
+            return new Ok<>(fn.apply(
+                r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+                r6.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3, r4, r5, r6));
+    }
+
+    /**
+     * Combines 7 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param r7 The seventh result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <T7> The type of the seventh Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, T4, T5, T6, T7, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Result<T7, E> r7,
+            final Functions.Function7<T1, T2, T3, T4, T5, T6, T7, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        if (r4.isErr()) {
+            return propagate(r4);
+        }
+        if (r5.isErr()) {
+            return propagate(r5);
+        }
+        if (r6.isErr()) {
+            return propagate(r6);
+        }
+        if (r7.isErr()) {
+            return propagate(r7);
+        }
+        return new Ok<>(fn.apply(
+            r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+            r6.unwrapOr(null), r7.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 7 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param r7 The seventh result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <T7> The type of the seventh Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, T4, T5, T6, T7, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Result<T7, E> r7,
+            final Functions.Function7<T1, T2, T3, T4, T5, T6, T7, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk() && r4.isOk() && r5.isOk() && r6.isOk() && r7.isOk()) {
+            return new Ok<>(fn.apply(
+                r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+                r6.unwrapOr(null), r7.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3, r4, r5, r6, r7));
+    }
+
+    /**
+     * Combines 8 independent results. If all of them are {@link Ok}, {@code fn} is applied once to their values
+     * ({@code null} for an empty {@link Ok}), else the first {@link Err} in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param r7 The seventh result
+     * @param r8 The eighth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <T7> The type of the seventh Ok value
+     * @param <T8> The type of the eighth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or the first {@link Err}
+     */
+    public static final <T1, T2, T3, T4, T5, T6, T7, T8, R, E> Result<R, E> zip(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Result<T7, E> r7, final Result<T8, E> r8,
+            final Functions.Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> fn) {
+        if (r1.isErr()) {
+            return propagate(r1);
+        }
+        if (r2.isErr()) {
+            return propagate(r2);
+        }
+        if (r3.isErr()) {
+            return propagate(r3);
+        }
+        if (r4.isErr()) {
+            return propagate(r4);
+        }
+        if (r5.isErr()) {
+            return propagate(r5);
+        }
+        if (r6.isErr()) {
+            return propagate(r6);
+        }
+        if (r7.isErr()) {
+            return propagate(r7);
+        }
+        if (r8.isErr()) {
+            return propagate(r8);
+        }
+        return new Ok<>(fn.apply(
+            r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+            r6.unwrapOr(null), r7.unwrapOr(null), r8.unwrapOr(null)));
+    }
+
+    /**
+     * Combines 8 independent results and collects all errors. If all of them are {@link Ok}, {@code fn} is
+     * applied once to their values ({@code null} for an empty {@link Ok}), else an {@link Err} holding the
+     * errors of all {@link Err}s in argument order is returned.
+     * @param r1 The first result
+     * @param r2 The second result
+     * @param r3 The third result
+     * @param r4 The fourth result
+     * @param r5 The fifth result
+     * @param r6 The sixth result
+     * @param r7 The seventh result
+     * @param r8 The eighth result
+     * @param fn The function combining the values
+     * @param <T1> The type of the first Ok value
+     * @param <T2> The type of the second Ok value
+     * @param <T3> The type of the third Ok value
+     * @param <T4> The type of the fourth Ok value
+     * @param <T5> The type of the fifth Ok value
+     * @param <T6> The type of the sixth Ok value
+     * @param <T7> The type of the seventh Ok value
+     * @param <T8> The type of the eighth Ok value
+     * @param <R> The type of the combined value
+     * @param <E> The type of the Err value
+     * @return The combined value or all errors
+     */
+    public static final <T1, T2, T3, T4, T5, T6, T7, T8, R, E> Result<R, List<E>> zipAll(
+            final Result<T1, E> r1, final Result<T2, E> r2, final Result<T3, E> r3, final Result<T4, E> r4,
+            final Result<T5, E> r5, final Result<T6, E> r6, final Result<T7, E> r7, final Result<T8, E> r8,
+            final Functions.Function8<T1, T2, T3, T4, T5, T6, T7, T8, R> fn) {
+        if (r1.isOk() && r2.isOk() && r3.isOk() && r4.isOk() && r5.isOk() && r6.isOk() && r7.isOk() && r8.isOk()) {
+            return new Ok<>(fn.apply(
+                r1.unwrapOr(null), r2.unwrapOr(null), r3.unwrapOr(null), r4.unwrapOr(null), r5.unwrapOr(null),
+                r6.unwrapOr(null), r7.unwrapOr(null), r8.unwrapOr(null)));
+        }
+        return new Err<>(errors(r1, r2, r3, r4, r5, r6, r7, r8));
+    }
+
+    /**
+     * Passes an {@link Err} on with a different Ok type.
+     * @param err The {@link Err} to pass on
+     * @param <R> The new type of the Ok value
+     * @param <E> The type of the Err value
+     * @return {@code err}
+     */
+    @SuppressWarnings("unchecked")
+    private static <R, E> Result<R, E> propagate(final Result<?, E> err) {
+        return (Result<R, E>) err;
+    }
+
+    /**
+     * Collects the errors of the given results.
+     * @param results The results
+     * @param <E> The type of the Err value
+     * @return The errors of all {@link Err}s in argument order
+     */
+    @SafeVarargs
+    private static <E> List<E> errors(final Result<?, E>... results) {
+        final List<E> errors = new ArrayList<>(results.length);
+        for (final Result<?, E> result : results) {
+            if (result.isErr()) {
+                errors.add(result.getErr());
+            }
+        }
+        return errors;
+    }
+
     /**
      * Converts from {@code Result<T, E>} to {@code Optional<T>}.
      * @return An {@code Optional} containing the wrapped value or an empty value for {@link Err} or an empty
@@ -84,12 +627,81 @@ public abstract class Result<T, E> {
         return new Err<>(error);
     }
 
+    /**
+     * Creates a new {@link org.vbrandl.errorhandling.result.Err} holding a {@link StructuredError} with a fixed
+     * message.
+     * @param code The error code
+     * @param message The message
+     * @param <T> The type of the Ok value
+     * @return A new {@link org.vbrandl.errorhandling.result.Err} instance
+     */
+    public static final <T> Result<T, StructuredError> err(final String code, final String message) {
+        return new Err<>(StructuredError.of(code, message));
+    }
+
+    /**
+     * Creates a new {@link org.vbrandl.errorhandling.result.Err} holding a {@link StructuredError}. The message is
+     * only rendered when it is requested.
+     * @param code The error code
+     * @param template The {@link String#format(String, Object...)} template of the message
+     * @param args The arguments for the template
+     * @param <T> The type of the Ok value
+     * @return A new {@link org.vbrandl.errorhandling.result.Err} instance
+     */
+    public static final <T> Result<T, StructuredError> err(final String code, final String template,
+                                                           final Object... args) {
+        return new Err<>(StructuredError.of(code, template, args));
+    }
+
+    /**
+     * Creates a {@link Comparator} that orders every {@link Ok} before every {@link Err}. Ok values are compared with
+     * {@code okCmp} and errors with {@code errCmp}, an empty {@link Ok} or a {@code null} error comes first.
+     * @param okCmp Compares the Ok values
+     * @param errCmp Compares the Err values
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A comparator for results
+     */
+    public static final <T, E> Comparator<Result<T, E>> comparator(final Comparator<? super T> okCmp,
+                                                                   final Comparator<? super E> errCmp) {
+        final Comparator<T> oks = Comparator.nullsFirst(okCmp);
+        final Comparator<E> errs = Comparator.nullsFirst(errCmp);
+        return (fst, snd) -> {
+            if (fst.isOk() != snd.isOk()) {
+                return fst.isOk() ? -1 : 1;
+            }
+            if (fst.isOk()) {
+                return oks.compare(fst.unwrapOr(null), snd.unwrapOr(null));
+            }
+            return errs.compare(fst.getErr(), snd.getErr());
+        };
+    }
+
+    /**
+     * Creates a {@link Comparator} that orders every {@link Ok} before every {@link Err} and compares values and
+     * errors by their natural order.
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A comparator for results
+     * @see #comparator(Comparator, Comparator)
+     */
+    public static final <T extends Comparable<? super T>, E extends Comparable<? super E>>
+        Comparator<Result<T, E>> naturalOrder() {
+        return comparator(Comparator.naturalOrder(), Comparator.naturalOrder());
+    }
+
     /**
      * Converts from {@code Result<T, E>} to {@code Optional<E>}.
      * @return An {@code Optional} containing the wrapped error or an empty value for {@link Ok}
      */
     abstract Optional<E> err();
 
+    /**
+     * Converts from {@code Result<T, E>} to {@code Stream<T>}.
+     * @return A stream containing the wrapped value or an empty stream for {@link Err} or an empty {@link Ok}
+     */
+    abstract Stream<T> stream();
+
     /**
      * Checks if this instance is an {@link org.vbrandl.errorhandling.result.Ok}.
      * @return {@code true} for {@link org.vbrandl.errorhandling.result.Ok}, else {@code false}
@@ -163,6 +775,86 @@ public abstract class Result<T, E> {
      */
     abstract <U> Result<T, U> orElse(final Function<? super E, Result<T, U>> mapFn);
 
+    /**
+     * Like {@link #map(Function)}, but passes an explicit context to the function so it does not need to capture it
+     * and can be a static, non-capturing singleton.
+     * @param ctx The context passed to the function
+     * @param mapFn The function to apply
+     * @param <C> The type of the context
+     * @param <U> The type of the new Ok value
+     * @return A new {@code Result<U, E>}
+     */
+    abstract <C, U> Result<U, E> mapWith(final C ctx, final BiFunction<? super C, ? super T, U> mapFn);
+
+    /**
+     * Like {@link #andThen(Function)}, but passes an explicit context to the function so it does not need to
+     * capture it.
+     * @param ctx The context passed to the function
+     * @param mapFn The function to apply
+     * @param <C> The type of the context
+     * @param <U> The type of the new Ok value
+     * @return A new {@code Result<U, E>}
+     */
+    abstract <C, U> Result<U, E> andThenWith(final C ctx,
+                                             final BiFunction<? super C, ? super T, Result<U, E>> mapFn);
+
+    /**
+     * Like {@link #mapErr(Function)}, but passes an explicit context to the function so it does not need to
+     * capture it.
+     * @param ctx The context passed to the function
+     * @param mapFn The function to apply
+     * @param <C> The type of the context
+     * @param <U> The type of the new Err value
+     * @return A new {@code Result<T, U>}
+     */
+    abstract <C, U> Result<T, U> mapErrWith(final C ctx, final BiFunction<? super C, ? super E, U> mapFn);
+
+    /**
+     * Like {@link #orElse(Function)}, but passes an explicit context to the function so it does not need to
+     * capture it.
+     * @param ctx The context passed to the function
+     * @param mapFn The function to apply
+     * @param <C> The type of the context
+     * @param <U> The type of the new Err value
+     * @return A new {@code Result<T, U>}
+     */
+    abstract <C, U> Result<T, U> orElseWith(final C ctx,
+                                            final BiFunction<? super C, ? super E, Result<T, U>> mapFn);
+
+    /**
+     * Attaches a context message to an {@link Err}. Returns an {@link Ok} unchanged without allocating.
+     * @param message The context message
+     * @return A new {@link Err} with the context attached or this {@link Ok}
+     */
+    abstract Result<T, E> context(final String message);
+
+    /**
+     * Attaches a lazily computed context message to an {@link Err}. The supplier is only called when the error is
+     * reported. Returns an {@link Ok} unchanged without allocating.
+     * @param message Supplies the context message
+     * @return A new {@link Err} with the context attached or this {@link Ok}
+     */
+    abstract Result<T, E> context(final Supplier<String> message);
+
+    /**
+     * Attaches a context message, rendered from a {@link String#format(String, Object...)} template when the error is
+     * reported, to an {@link Err}. Returns an {@link Ok} unchanged without allocating.
+     * @param template The template of the context message
+     * @param arg The argument for the template
+     * @return A new {@link Err} with the context attached or this {@link Ok}
+     */
+    abstract Result<T, E> context(final String template, final Object arg);
+
+    /**
+     * Attaches a context message, rendered from a {@link String#format(String, Object...)} template when the error is
+     * reported, to an {@link Err}. Returns an {@link Ok} unchanged without allocating.
+     * @param template The template of the context message
+     * @param arg1 The first argument for the template
+     * @param arg2 The second argument for the template
+     * @return A new {@link Err} with the context attached or this {@link Ok}
+     */
+    abstract Result<T, E> context(final String template, final Object arg1, final Object arg2);
+
     /**
      * Applies a consumer that takes a {@code T} as parameter to the wrapped value.
      * @param consFn The consumer to apply
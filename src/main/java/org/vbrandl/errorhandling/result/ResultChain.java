@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Function;
+
+/**
+ * A lazily evaluated chain of {@link Result} operations that runs in constant stack space. Building the chain only
+ * links immutable nodes, {@link #run()} flattens them into an array that is walked in a loop. Steps that continue
+ * with another chain ({@link #andThenChain(Function)}, {@link #orElseChain(Function)}) are trampolined: the returned
+ * chain is spliced into the running loop instead of being run recursively, so even recursively defined chains do not
+ * grow the stack.
+ * @param <T> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class ResultChain<T, E> {
+    /**
+     * The initial result, only set on the first node of a chain.
+     */
+    private final Result<Object, Object> seed;
+
+    /**
+     * The previous node or {@code null} for the first node.
+     */
+    private final ResultChain<?, ?> previous;
+
+    /**
+     * The step of this node or {@code null} for the first node.
+     */
+    private final Step step;
+
+    /**
+     * Number of steps up to and including this node.
+     */
+    private final int length;
+
+    /**
+     * Ctor.
+     * @param seed The initial result
+     * @param previous The previous node
+     * @param step The step of this node
+     * @param length Number of steps up to and including this node
+     */
+    private ResultChain(final Result<Object, Object> seed, final ResultChain<?, ?> previous, final Step step,
+                        final int length) {
+        this.seed = seed;
+        this.previous = previous;
+        this.step = step;
+        this.length = length;
+    }
+
+    /**
+     * Starts a new chain.
+     * @param seed The result to start with
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new chain without steps
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E> ResultChain<T, E> of(final Result<T, E> seed) {
+        return new ResultChain<>((Result<Object, Object>) seed, null, null, 0);
+    }
+
+    /**
+     * Appends a step applying {@link Result#map(Function)}.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Ok value
+     * @return A new chain
+     */
+    public <U> ResultChain<U, E> map(final Function<? super T, U> mapFn) {
+        return append(Step.MAP, mapFn);
+    }
+
+    /**
+     * Appends a step applying {@link Result#andThen(Function)}.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Ok value
+     * @return A new chain
+     */
+    public <U> ResultChain<U, E> andThen(final Function<? super T, Result<U, E>> mapFn) {
+        return append(Step.AND_THEN, mapFn);
+    }
+
+    /**
+     * Appends a step that continues with the chain returned by {@code mapFn} for an {@link Ok} value.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Ok value
+     * @return A new chain
+     */
+    public <U> ResultChain<U, E> andThenChain(final Function<? super T, ResultChain<U, E>> mapFn) {
+        return append(Step.AND_THEN_CHAIN, mapFn);
+    }
+
+    /**
+     * Appends a step applying {@link Result#mapErr(Function)}.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Err value
+     * @return A new chain
+     */
+    public <U> ResultChain<T, U> mapErr(final Function<? super E, U> mapFn) {
+        return append(Step.MAP_ERR, mapFn);
+    }
+
+    /**
+     * Appends a step applying {@link Result#orElse(Function)}.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Err value
+     * @return A new chain
+     */
+    public <U> ResultChain<T, U> orElse(final Function<? super E, Result<T, U>> mapFn) {
+        return append(Step.OR_ELSE, mapFn);
+    }
+
+    /**
+     * Appends a step that continues with the chain returned by {@code mapFn} for an {@link Err} value.
+     * @param mapFn The function to apply
+     * @param <U> The type of the new Err value
+     * @return A new chain
+     */
+    public <U> ResultChain<T, U> orElseChain(final Function<? super E, ResultChain<T, U>> mapFn) {
+        return append(Step.OR_ELSE_CHAIN, mapFn);
+    }
+
+    /**
+     * Returns the number of steps of this chain, not counting steps of chains that are only created while running.
+     * @return The number of steps
+     */
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * Runs the chain.
+     * @return The result after the last step
+     */
+    @SuppressWarnings("unchecked")
+    public Result<T, E> run() {
+        final Deque<Cursor> pending = new ArrayDeque<>();
+        Cursor cursor = new Cursor(this);
+        Result<Object, Object> current = cursor.seed;
+        while (true) {
+            while (cursor.index < cursor.steps.length) {
+                final Step next = cursor.steps[cursor.index++];
+                if (next.kind != Step.AND_THEN_CHAIN && next.kind != Step.OR_ELSE_CHAIN) {
+                    current = next.apply(current);
+                    continue;
+                }
+                final ResultChain<?, ?> continuation = continuation(next, current);
+                if (continuation == null) {
+                    continue;
+                }
+                // an exhausted cursor is not kept, so tail calls run in constant memory
+                if (cursor.index < cursor.steps.length) {
+                    pending.push(cursor);
+                }
+                cursor = new Cursor(continuation);
+                current = cursor.seed;
+            }
+            if (pending.isEmpty()) {
+                return (Result<T, E>) (Result<?, ?>) current;
+            }
+            cursor = pending.pop();
+        }
+    }
+
+    /**
+     * Evaluates a step that continues with another chain.
+     * @param step The step to evaluate
+     * @param current The current result
+     * @return The chain to continue with or {@code null} if {@code step} does not apply to {@code current}
+     */
+    private static ResultChain<?, ?> continuation(final Step step, final Result<Object, Object> current) {
+        if (step.kind == Step.AND_THEN_CHAIN && current.hasValue()) {
+            return (ResultChain<?, ?>) step.fn.apply(current.getOk());
+        }
+        if (step.kind == Step.OR_ELSE_CHAIN && current.isErr()) {
+            return (ResultChain<?, ?>) step.fn.apply(current.getErr());
+        }
+        return null;
+    }
+
+    /**
+     * Appends a step.
+     * @param kind The kind of the step
+     * @param fn The function of the step
+     * @param <U> The type of the new Ok value
+     * @param <F> The type of the new Err value
+     * @return A new chain
+     */
+    private <U, F> ResultChain<U, F> append(final int kind, final Function<?, ?> fn) {
+        return new ResultChain<>(null, this, new Step(kind, fn), this.length + 1);
+    }
+
+    /**
+     * Position in the flattened steps of a chain.
+     */
+    private static final class Cursor {
+        /**
+         * The initial result of the chain.
+         */
+        private final Result<Object, Object> seed;
+
+        /**
+         * The flattened steps of the chain.
+         */
+        private final Step[] steps;
+
+        /**
+         * Index of the next step.
+         */
+        private int index;
+
+        /**
+         * Ctor.
+         * @param chain The chain to flatten
+         */
+        Cursor(final ResultChain<?, ?> chain) {
+            this.steps = new Step[chain.length];
+            ResultChain<?, ?> node = chain;
+            for (int i = this.steps.length - 1; i >= 0; i--) {
+                this.steps[i] = node.step;
+                node = node.previous;
+            }
+            this.seed = node.seed;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Wraps an {@link Executor} so that submitted tasks complete with a {@link Result} instead of an exception. Failures
+ * are converted into an {@link Err} inside the worker, so retrieving the outcome only throws
+ * {@link ExecutionException} if the function mapping the failure to an error throws itself. Cancelling a returned
+ * future does not interrupt the running task.
+ */
+public final class ResultExecutor {
+    /**
+     * The wrapped executor.
+     */
+    private final Executor executor;
+
+    /**
+     * Ctor.
+     * @param executor The executor that runs the tasks
+     */
+    public ResultExecutor(final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Submits a task whose failure becomes the error of the {@link Err}.
+     * @param task The task
+     * @param <T> The type of the Ok value
+     * @return A future that completes with the outcome of the task
+     */
+    public <T> CompletableFuture<Result<T, Throwable>> submit(final Callable<? extends T> task) {
+        return submit(task, Function.identity());
+    }
+
+    /**
+     * Submits a task whose failure is mapped to an error.
+     * @param task The task
+     * @param errFn Maps a failure of the task to an error
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A future that completes with the outcome of the task
+     */
+    public <T, E> CompletableFuture<Result<T, E>> submit(final Callable<? extends T> task,
+                                                         final Function<? super Throwable, E> errFn) {
+        return submitResult(() -> new Ok<>(task.call()), errFn);
+    }
+
+    /**
+     * Submits a task that returns a {@link Result} itself. A failure of the task is mapped to an error.
+     * @param task The task
+     * @param errFn Maps a failure of the task to an error
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A future that completes with the result of the task
+     */
+    public <T, E> CompletableFuture<Result<T, E>> submitResult(final Callable<Result<T, E>> task,
+                                                               final Function<? super Throwable, E> errFn) {
+        final CompletableFuture<Result<T, E>> future = new CompletableFuture<>();
+        try {
+            this.executor.execute(() -> run(future, task, errFn));
+        } catch (final RejectedExecutionException ex) {
+            fail(future, ex, errFn);
+        }
+        return future;
+    }
+
+    /**
+     * Runs all tasks and waits for them to complete.
+     * @param tasks The tasks
+     * @param <T> The type of the Ok value
+     * @return The values and failures of the tasks, each in the iteration order of {@code tasks}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public <T> Partition<T, Throwable> invokeAll(final Collection<? extends Callable<? extends T>> tasks)
+        throws InterruptedException {
+        return invokeAll(tasks, Function.identity());
+    }
+
+    /**
+     * Runs all tasks and waits for them to complete.
+     * @param tasks The tasks
+     * @param errFn Maps a failure of a task to an error
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return The values and errors of the tasks, each in the iteration order of {@code tasks}
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if {@code errFn} failed for any task, thrown after all tasks completed with the
+     *     first failure as cause and the others suppressed
+     */
+    public <T, E> Partition<T, E> invokeAll(final Collection<? extends Callable<? extends T>> tasks,
+                                            final Function<? super Throwable, E> errFn)
+        throws InterruptedException {
+        final List<CompletableFuture<Result<T, E>>> futures = new ArrayList<>(tasks.size());
+        for (final Callable<? extends T> task : tasks) {
+            futures.add(submit(task, errFn));
+        }
+        final Partition<T, E> partition = new Partition<>();
+        IllegalStateException failure = null;
+        for (final CompletableFuture<Result<T, E>> future : futures) {
+            try {
+                partition.add(future.get());
+            } catch (final ExecutionException ex) {
+                // only reachable if errFn failed
+                if (failure == null) {
+                    failure = new IllegalStateException("errFn failed", ex.getCause());
+                } else {
+                    failure.addSuppressed(ex.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return partition;
+    }
+
+    /**
+     * Runs a task and completes a future with its result. A failure of the task is converted into an {@link Err}
+     * and an {@link Error} is rethrown afterwards.
+     * @param future The future to complete
+     * @param task The task
+     * @param errFn Maps a failure of the task to an error
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     */
+    private static <T, E> void run(final CompletableFuture<Result<T, E>> future, final Callable<Result<T, E>> task,
+                                   final Function<? super Throwable, E> errFn) {
+        final Throwable failure;
+        try {
+            future.complete(task.call());
+            return;
+        } catch (final Throwable ex) {
+            failure = ex;
+        }
+        fail(future, failure, errFn);
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * Completes a future with the {@link Err} of a failure, or exceptionally if {@code errFn} fails itself.
+     * @param future The future to complete
+     * @param failure The failure
+     * @param errFn Maps the failure to an error
+     * @param <T> The type of the Ok value
+     * @param <E> The type of the Err value
+     */
+    private static <T, E> void fail(final CompletableFuture<Result<T, E>> future, final Throwable failure,
+                                    final Function<? super Throwable, E> errFn) {
+        try {
+            future.complete(new Err<>(errFn.apply(failure)));
+        } catch (final Throwable fnEx) {
+            future.completeExceptionally(fnEx);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A reusable, precompiled function {@code T -> Result<U, E>}. A {@code ResultFunction} is composed once from
+ * {@link #then(Function)}, {@link #map(Function)}, {@link #recover(Function)} and {@link #mapErr(Function)} into an
+ * immutable, flat array of steps. {@link #apply(Object)} runs this array in a loop without allocating any
+ * composition, so the same pipeline can be applied to millions of inputs.
+ * @param <T> The type of the input
+ * @param <U> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class ResultFunction<T, U, E> implements Function<T, Result<U, E>> {
+    /**
+     * The flattened steps. The first step is applied to the input itself, even if it is {@code null}.
+     */
+    private final Step[] steps;
+
+    /**
+     * Ctor.
+     * @param steps The flattened steps
+     */
+    private ResultFunction(final Step[] steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Creates a {@code ResultFunction} from a fallible function.
+     * @param fn The function
+     * @param <T> The type of the input
+     * @param <U> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@code ResultFunction}
+     */
+    public static <T, U, E> ResultFunction<T, U, E> of(final Function<? super T, Result<U, E>> fn) {
+        return new ResultFunction<>(new Step[] {new Step(Step.AND_THEN, fn)});
+    }
+
+    /**
+     * Creates a {@code ResultFunction} from an infallible function.
+     * @param fn The function
+     * @param <T> The type of the input
+     * @param <U> The type of the Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@code ResultFunction}
+     */
+    public static <T, U, E> ResultFunction<T, U, E> lift(final Function<? super T, U> fn) {
+        return new ResultFunction<>(new Step[] {new Step(Step.MAP, fn)});
+    }
+
+    /**
+     * Creates the identity {@code ResultFunction}, a starting point for composition.
+     * @param <T> The type of the input and Ok value
+     * @param <E> The type of the Err value
+     * @return A new {@code ResultFunction} without steps
+     */
+    public static <T, E> ResultFunction<T, T, E> identity() {
+        return new ResultFunction<>(new Step[0]);
+    }
+
+    /**
+     * Composes a fallible function that is applied to {@link Ok} values.
+     * @param fn The function
+     * @param <V> The type of the new Ok value
+     * @return A new {@code ResultFunction}
+     */
+    public <V> ResultFunction<T, V, E> then(final Function<? super U, Result<V, E>> fn) {
+        return append(new Step(Step.AND_THEN, fn));
+    }
+
+    /**
+     * Composes another {@code ResultFunction} that is applied to {@link Ok} values. Its steps are inlined.
+     * @param next The function
+     * @param <V> The type of the new Ok value
+     * @return A new {@code ResultFunction}
+     */
+    public <V> ResultFunction<T, V, E> then(final ResultFunction<? super U, V, E> next) {
+        final Step[] joined = Arrays.copyOf(this.steps, this.steps.length + next.steps.length);
+        System.arraycopy(next.steps, 0, joined, this.steps.length, next.steps.length);
+        return new ResultFunction<>(joined);
+    }
+
+    /**
+     * Composes an infallible function that is applied to {@link Ok} values.
+     * @param fn The function
+     * @param <V> The type of the new Ok value
+     * @return A new {@code ResultFunction}
+     */
+    public <V> ResultFunction<T, V, E> map(final Function<? super U, V> fn) {
+        return append(new Step(Step.MAP, fn));
+    }
+
+    /**
+     * Composes a function that is applied to {@link Err} values and may recover from them.
+     * @param fn The function
+     * @param <F> The type of the new Err value
+     * @return A new {@code ResultFunction}
+     */
+    public <F> ResultFunction<T, U, F> recover(final Function<? super E, Result<U, F>> fn) {
+        return append(new Step(Step.OR_ELSE, fn));
+    }
+
+    /**
+     * Composes a function that maps {@link Err} values.
+     * @param fn The function
+     * @param <F> The type of the new Err value
+     * @return A new {@code ResultFunction}
+     */
+    public <F> ResultFunction<T, U, F> mapErr(final Function<? super E, F> fn) {
+        return append(new Step(Step.MAP_ERR, fn));
+    }
+
+    /**
+     * Returns the number of steps.
+     * @return The number of steps
+     */
+    public int length() {
+        return this.steps.length;
+    }
+
+    /**
+     * Applies the function to an input. The first step is always called, also for a {@code null} input.
+     * @param input The input
+     * @return The result of the last step
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Result<U, E> apply(final T input) {
+        if (this.steps.length == 0) {
+            return (Result<U, E>) new Ok<>(input);
+        }
+        return (Result<U, E>) (Result<?, ?>) Step.run(this.steps[0].applyTo(input), this.steps, 1, this.steps.length);
+    }
+
+    /**
+     * Applies the function to the value of a {@link Result}. An {@link Err} is passed through the
+     * {@link #recover(Function)} and {@link #mapErr(Function)} steps.
+     * @param input The input
+     * @return The result of the last step
+     */
+    @SuppressWarnings("unchecked")
+    public Result<U, E> applyTo(final Result<? extends T, E> input) {
+        return (Result<U, E>) (Result<?, ?>) Step.run((Result<Object, Object>) (Result<?, ?>) input, this.steps, 0,
+                                                      this.steps.length);
+    }
+
+    /**
+     * Returns a new {@code ResultFunction} with an additional step.
+     * @param step The step to append
+     * @param <V> The type of the new Ok value
+     * @param <F> The type of the new Err value
+     * @return A new {@code ResultFunction}
+     */
+    private <V, F> ResultFunction<T, V, F> append(final Step step) {
+        final Step[] appended = Arrays.copyOf(this.steps, this.steps.length + 1);
+        appended[this.steps.length] = step;
+        return new ResultFunction<>(appended);
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue on a preallocated ring (Vyukov's algorithm). Every slot
+ * carries a sequence number that tells producers and consumers whether the slot is free or filled for their lap, so
+ * claiming a slot is a single CAS on the head or tail counter and nothing is allocated per element.
+ * @param <T> The type of the elements
+ */
+final class RingBuffer<T> {
+    /**
+     * The elements.
+     */
+    private final AtomicReferenceArray<T> slots;
+
+    /**
+     * Sequence number of every slot.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Mask to compute the slot of a position.
+     */
+    private final int mask;
+
+    /**
+     * Next position to write.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Next position to read.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Ctor.
+     * @param capacity The minimum capacity, rounded up to a power of two
+     */
+    RingBuffer(final int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity must be in (0, 2^30]");
+        }
+        final int size = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            this.sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the capacity.
+     * @return The number of slots
+     */
+    int capacity() {
+        return this.mask + 1;
+    }
+
+    /**
+     * Returns the approximate number of elements.
+     * @return The number of elements
+     */
+    int size() {
+        final long size = this.tail.get() - this.head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * Inserts an element if there is space.
+     * @param element The element, not {@code null}
+     * @return {@code true} if inserted, {@code false} if the buffer is full
+     */
+    boolean offer(final T element) {
+        long pos = this.tail.get();
+        while (true) {
+            final int index = (int) (pos & this.mask);
+            final long diff = this.sequences.get(index) - pos;
+            if (diff == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    this.slots.lazySet(index, element);
+                    this.sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = this.tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = this.tail.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element.
+     * @return The element or {@code null} if the buffer is empty
+     */
+    T poll() {
+        long pos = this.head.get();
+        while (true) {
+            final int index = (int) (pos & this.mask);
+            final long diff = this.sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (this.head.compareAndSet(pos, pos + 1)) {
+                    final T element = this.slots.get(index);
+                    this.slots.lazySet(index, null);
+                    this.sequences.set(index, pos + this.mask + 1);
+                    return element;
+                }
+                pos = this.head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = this.head.get();
+            }
+        }
+    }
+
+    /**
+     * Removes up to {@code max} elements.
+     * @param consumer Receives the removed elements in order
+     * @param max The maximum number of elements to remove
+     * @return The number of removed elements
+     */
+    int drain(final Consumer<? super T> consumer, final int max) {
+        int drained = 0;
+        while (drained < max) {
+            final T element = poll();
+            if (element == null) {
+                break;
+            }
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+}
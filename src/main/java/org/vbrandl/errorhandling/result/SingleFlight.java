@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent computations of the same key. The first caller for a key runs the computation, callers that
+ * arrive while it is in flight receive the same {@link Result}, {@link Ok} or {@link Err}. The key is removed as soon
+ * as the computation completes, so nothing is cached beyond the in-flight window.
+ * <p>
+ * If the computation throws, every caller waiting for it receives the same exception.
+ * @param <K> The type of the keys
+ * @param <V> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+public final class SingleFlight<K, V, E> {
+    /**
+     * The computations in flight.
+     */
+    private final ConcurrentMap<K, CompletableFuture<Result<V, E>>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Computes a result on the calling thread or waits for the computation already in flight for {@code key}.
+     * @param key The key
+     * @param fn The computation
+     * @return The result of the computation for {@code key}
+     */
+    public Result<V, E> get(final K key, final Supplier<? extends Result<V, E>> fn) {
+        final CompletableFuture<Result<V, E>> flight = new CompletableFuture<>();
+        final CompletableFuture<Result<V, E>> existing = this.flights.putIfAbsent(key, flight);
+        if (existing == null) {
+            run(key, flight, fn);
+            return flight.getNow(null);
+        }
+        try {
+            return existing.join();
+        } catch (final CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Starts a computation on an executor or subscribes to the computation already in flight for {@code key}.
+     * Cancelling the returned future does not affect other callers.
+     * @param key The key
+     * @param fn The computation
+     * @param executor Runs the computation if none is in flight
+     * @return A future that completes with the result of the computation for {@code key}
+     */
+    public CompletableFuture<Result<V, E>> getAsync(final K key, final Supplier<? extends Result<V, E>> fn,
+                                                    final Executor executor) {
+        final CompletableFuture<Result<V, E>> flight = new CompletableFuture<>();
+        final CompletableFuture<Result<V, E>> existing = this.flights.putIfAbsent(key, flight);
+        if (existing != null) {
+            return existing.thenApply(result -> result);
+        }
+        try {
+            executor.execute(() -> run(key, flight, fn));
+        } catch (final RejectedExecutionException ex) {
+            this.flights.remove(key, flight);
+            flight.completeExceptionally(ex);
+        }
+        return flight.thenApply(result -> result);
+    }
+
+    /**
+     * Returns the number of computations in flight.
+     * @return The number of keys being computed
+     */
+    public int inFlight() {
+        return this.flights.size();
+    }
+
+    /**
+     * Runs a computation and completes its flight.
+     * @param key The key
+     * @param flight The flight of the computation
+     * @param fn The computation
+     */
+    private void run(final K key, final CompletableFuture<Result<V, E>> flight,
+                     final Supplier<? extends Result<V, E>> fn) {
+        final Result<V, E> result;
+        try {
+            result = fn.get();
+        } catch (final RuntimeException | Error ex) {
+            this.flights.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+        this.flights.remove(key, flight);
+        flight.complete(result);
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.function.Function;
+
+/**
+ * A single, type-erased step of a flattened {@link Result} pipeline. Pipelines are stored as arrays of steps and
+ * executed in a loop, so their length does not affect the stack depth.
+ */
+final class Step {
+    /**
+     * Step applying {@link Result#map(Function)}.
+     */
+    static final int MAP = 0;
+
+    /**
+     * Step applying {@link Result#andThen(Function)}.
+     */
+    static final int AND_THEN = 1;
+
+    /**
+     * Step applying {@link Result#mapErr(Function)}.
+     */
+    static final int MAP_ERR = 2;
+
+    /**
+     * Step applying {@link Result#orElse(Function)}.
+     */
+    static final int OR_ELSE = 3;
+
+    /**
+     * Step continuing with a {@link ResultChain} returned for an {@link Ok} value. Only {@link ResultChain} can run
+     * it.
+     */
+    static final int AND_THEN_CHAIN = 4;
+
+    /**
+     * Step continuing with a {@link ResultChain} returned for an {@link Err} value. Only {@link ResultChain} can run
+     * it.
+     */
+    static final int OR_ELSE_CHAIN = 5;
+
+    /**
+     * The kind of the step.
+     */
+    final int kind;
+
+    /**
+     * The function of the step.
+     */
+    final Function<Object, Object> fn;
+
+    /**
+     * Ctor.
+     * @param kind The kind of the step
+     * @param fn The function of the step
+     */
+    @SuppressWarnings("unchecked")
+    Step(final int kind, final Function<?, ?> fn) {
+        this.kind = kind;
+        this.fn = (Function<Object, Object>) fn;
+    }
+
+    /**
+     * Applies the step to a result. Results the step does not apply to, i.e. {@link Err} for {@link #MAP} and
+     * {@link #AND_THEN} or {@link Ok} for {@link #MAP_ERR} and {@link #OR_ELSE}, are passed through unchanged.
+     * @param current The current result
+     * @return The result of the step
+     */
+    @SuppressWarnings("unchecked")
+    Result<Object, Object> apply(final Result<Object, Object> current) {
+        switch (this.kind) {
+            case MAP:
+                return current.hasValue() ? new Ok<>(this.fn.apply(current.getOk())) : current;
+            case AND_THEN:
+                if (current.hasValue()) {
+                    final Result<Object, Object> result = (Result<Object, Object>) this.fn.apply(current.getOk());
+                    return result == null ? new Ok<>(null) : result;
+                }
+                return current;
+            case MAP_ERR:
+                return current.isErr() ? current.mapErr(this.fn) : current;
+            case OR_ELSE:
+                return current.isErr() ? (Result<Object, Object>) this.fn.apply(current.getErr()) : current;
+            default:
+                throw new IllegalStateException("unknown step " + this.kind);
+        }
+    }
+
+    /**
+     * Applies the step to a plain input value. Unlike {@link #apply(Result)}, {@link #MAP} and {@link #AND_THEN} steps
+     * are applied to {@code null} inputs as well; {@link #MAP_ERR} and {@link #OR_ELSE} steps wrap the input in an
+     * {@link Ok}.
+     * @param input The input
+     * @return The result of the step
+     */
+    @SuppressWarnings("unchecked")
+    Result<Object, Object> applyTo(final Object input) {
+        switch (this.kind) {
+            case MAP:
+                return new Ok<>(this.fn.apply(input));
+            case AND_THEN:
+                final Result<Object, Object> result = (Result<Object, Object>) this.fn.apply(input);
+                return result == null ? new Ok<>(null) : result;
+            case MAP_ERR:
+            case OR_ELSE:
+                return new Ok<>(input);
+            default:
+                throw new IllegalStateException("unknown step " + this.kind);
+        }
+    }
+
+    /**
+     * Runs a slice of a step array on a seed result in a loop.
+     * @param seed The result to start with
+     * @param steps The steps to apply
+     * @param from The index of the first step to apply
+     * @param to The index after the last step to apply
+     * @return The result after the last step
+     */
+    static Result<Object, Object> run(final Result<Object, Object> seed, final Step[] steps, final int from,
+                                      final int to) {
+        Result<Object, Object> current = seed;
+        for (int i = from; i < to; i++) {
+            current = steps[i].apply(current);
+        }
+        return current;
+    }
+}
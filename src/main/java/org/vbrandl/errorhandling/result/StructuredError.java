@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A lightweight error value consisting of an error code, a format template and the raw arguments for the template.
+ * The message is only rendered by {@link #message()} or {@link #toString()}, so errors that are just counted or
+ * discarded never pay for formatting. Two errors are equal if their codes are equal, arguments are not compared.
+ */
+public final class StructuredError {
+    /**
+     * Shared argument array for errors without arguments.
+     */
+    private static final Object[] NO_ARGS = new Object[0];
+
+    /**
+     * The error code.
+     */
+    private final String code;
+
+    /**
+     * The {@link String#format(String, Object...)} template of the message.
+     */
+    private final String template;
+
+    /**
+     * The arguments for the template.
+     */
+    private final Object[] args;
+
+    /**
+     * The rendered message, computed on first use.
+     */
+    private String message;
+
+    /**
+     * Ctor.
+     * @param code The error code
+     * @param template The template of the message
+     * @param args The arguments for the template, the array is not copied
+     */
+    private StructuredError(final String code, final String template, final Object[] args) {
+        if (code == null) {
+            throw new IllegalArgumentException("code must not be null");
+        }
+        this.code = code;
+        this.template = template;
+        this.args = args;
+    }
+
+    /**
+     * Creates a new error with a fixed message.
+     * @param code The error code
+     * @param message The message
+     * @return A new {@code StructuredError}
+     */
+    public static StructuredError of(final String code, final String message) {
+        return new StructuredError(code, message, NO_ARGS);
+    }
+
+    /**
+     * Creates a new error whose message is rendered from a template on demand.
+     * @param code The error code
+     * @param template The {@link String#format(String, Object...)} template of the message
+     * @param args The arguments for the template, the array is not copied
+     * @return A new {@code StructuredError}
+     */
+    public static StructuredError of(final String code, final String template, final Object... args) {
+        return new StructuredError(code, template, args);
+    }
+
+    /**
+     * Returns the error code.
+     * @return The error code
+     */
+    public String code() {
+        return this.code;
+    }
+
+    /**
+     * Returns the template of the message.
+     * @return The template
+     */
+    public String template() {
+        return this.template;
+    }
+
+    /**
+     * Returns a copy of the raw arguments.
+     * @return The arguments for the template
+     */
+    public Object[] args() {
+        return this.args.clone();
+    }
+
+    /**
+     * Renders the message. The rendered message is cached.
+     * @return The message
+     */
+    public String message() {
+        String rendered = this.message;
+        if (rendered == null) {
+            rendered = this.args.length == 0
+                ? String.valueOf(this.template)
+                : String.format(Locale.ROOT, this.template, this.args);
+            this.message = rendered;
+        }
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return this.code + ": " + message();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.code.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null) {
+            return false;
+        }
+        if (getClass() != obj.getClass()) {
+            return false;
+        }
+        final StructuredError other = (StructuredError) obj;
+        return this.code.equals(other.code);
+    }
+
+    /**
+     * Checks if the raw arguments are equal as well, unlike {@link #equals(Object)}.
+     * @param other The error to compare to
+     * @return {@code true} if code, template and arguments are equal
+     */
+    public boolean deepEquals(final StructuredError other) {
+        return equals(other)
+            && Objects.equals(this.template, other.template)
+            && Arrays.deepEquals(this.args, other.args);
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timer wheel. All timeouts scheduled on a wheel are served by a single daemon thread, so scheduling a
+ * timeout only costs an allocation and a queue insert instead of a task in a {@code ScheduledExecutorService}.
+ * Timeouts fire with a granularity of one tick. The tasks run on the wheel thread and must therefore be short, e.g.
+ * completing a future.
+ */
+public final class TimerWheel implements AutoCloseable {
+    /**
+     * Default tick duration of the shared wheel in milliseconds.
+     */
+    private static final long DEFAULT_TICK_MILLIS = 10;
+
+    /**
+     * Default number of buckets of the shared wheel.
+     */
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+
+    /**
+     * Maximum number of pending timeouts moved into the wheel per tick.
+     */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    /**
+     * The buckets of the wheel, only accessed by the wheel thread.
+     */
+    private final Timeout[] buckets;
+
+    /**
+     * Mask to map a tick to its bucket.
+     */
+    private final int mask;
+
+    /**
+     * Duration of a tick in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * Start time of the wheel, all deadlines are relative to this.
+     */
+    private final long startTime;
+
+    /**
+     * Timeouts that were scheduled but not yet moved into a bucket.
+     */
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The wheel thread.
+     */
+    private final Thread worker;
+
+    /**
+     * Whether the wheel is still running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Ctor.
+     * @param tick The duration of one tick
+     * @param unit The unit of {@code tick}
+     * @param wheelSize The number of buckets, rounded up to a power of two
+     */
+    public TimerWheel(final long tick, final TimeUnit unit, final int wheelSize) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("tick must be positive");
+        }
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize must be in (0, 2^30]");
+        }
+        final int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.buckets = new Timeout[Math.max(1, size)];
+        this.mask = this.buckets.length - 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::work, "timer-wheel");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Returns the wheel shared by the whole library, it ticks every 10 milliseconds.
+     * @return The shared wheel
+     */
+    public static TimerWheel shared() {
+        return Shared.INSTANCE;
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     * @param task The task to run on the wheel thread
+     * @param delay The delay
+     * @param unit The unit of {@code delay}
+     * @return A handle to cancel the task
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        if (!this.running) {
+            throw new IllegalStateException("timer wheel is closed");
+        }
+        final Timeout timeout = new Timeout(task, System.nanoTime() - this.startTime + unit.toNanos(delay));
+        this.pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the wheel thread. Timeouts that did not fire yet are dropped.
+     */
+    @Override
+    public void close() {
+        this.running = false;
+        LockSupport.unpark(this.worker);
+    }
+
+    /**
+     * The loop of the wheel thread.
+     */
+    private void work() {
+        long tick = 0;
+        while (this.running) {
+            final long sleep = this.startTime + (tick + 1) * this.tickNanos - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                continue;
+            }
+            transferPending(tick);
+            expire(tick);
+            tick++;
+        }
+    }
+
+    /**
+     * Moves pending timeouts into their buckets.
+     * @param tick The current tick
+     */
+    private void transferPending(final long tick) {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            final Timeout timeout = this.pending.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state != Timeout.PENDING) {
+                continue;
+            }
+            final long due = Math.max(timeout.deadline / this.tickNanos, tick);
+            timeout.rounds = (due - tick) / this.buckets.length;
+            final int index = (int) (due & this.mask);
+            timeout.next = this.buckets[index];
+            this.buckets[index] = timeout;
+        }
+    }
+
+    /**
+     * Runs the due timeouts of a bucket and drops cancelled ones.
+     * @param tick The current tick
+     */
+    private void expire(final long tick) {
+        final int index = (int) (tick & this.mask);
+        Timeout prev = null;
+        Timeout current = this.buckets[index];
+        while (current != null) {
+            final Timeout next = current.next;
+            final boolean remove;
+            if (current.state != Timeout.PENDING) {
+                remove = true;
+            } else if (current.rounds <= 0) {
+                remove = true;
+                current.expire();
+            } else {
+                remove = false;
+                current.rounds--;
+            }
+            if (remove) {
+                current.next = null;
+                if (prev == null) {
+                    this.buckets[index] = next;
+                } else {
+                    prev.next = next;
+                }
+            } else {
+                prev = current;
+            }
+            current = next;
+        }
+    }
+
+    /**
+     * Lazy holder of the shared wheel.
+     */
+    private static final class Shared {
+        /**
+         * The shared wheel.
+         */
+        static final TimerWheel INSTANCE = new TimerWheel(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS,
+                                                          DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        /**
+         * State of a timeout that neither fired nor was cancelled.
+         */
+        static final int PENDING = 0;
+
+        /**
+         * State of a cancelled timeout.
+         */
+        static final int CANCELLED = 1;
+
+        /**
+         * State of a timeout that fired.
+         */
+        static final int EXPIRED = 2;
+
+        /**
+         * Updater for {@link #state}.
+         */
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        /**
+         * The task to run.
+         */
+        private final Runnable task;
+
+        /**
+         * The deadline relative to the start of the wheel in nanoseconds.
+         */
+        private final long deadline;
+
+        /**
+         * One of {@link #PENDING}, {@link #CANCELLED} or {@link #EXPIRED}.
+         */
+        private volatile int state;
+
+        /**
+         * Remaining full rotations of the wheel, only accessed by the wheel thread.
+         */
+        private long rounds;
+
+        /**
+         * Next timeout in the same bucket, only accessed by the wheel thread.
+         */
+        private Timeout next;
+
+        /**
+         * Ctor.
+         * @param task The task to run
+         * @param deadline The deadline relative to the start of the wheel in nanoseconds
+         */
+        Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task.
+         * @return {@code true} if the task was cancelled before it ran
+         */
+        public boolean cancel() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        /**
+         * Checks if the task was cancelled.
+         * @return {@code true} if the task was cancelled
+         */
+        public boolean isCancelled() {
+            return this.state == CANCELLED;
+        }
+
+        /**
+         * Checks if the task ran.
+         * @return {@code true} if the task ran
+         */
+        public boolean isExpired() {
+            return this.state == EXPIRED;
+        }
+
+        /**
+         * Runs the task unless it was cancelled concurrently.
+         */
+        void expire() {
+            if (STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                try {
+                    this.task.run();
+                } catch (final RuntimeException ex) {
+                    // a failing task must not stop the wheel
+                    final Thread current = Thread.currentThread();
+                    current.getUncaughtExceptionHandler().uncaughtException(current, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * {@link Spliterator} that maps the elements of a source spliterator through a function returning {@link Result},
+ * emits the unwrapped {@link Ok} values and stops at the first {@link Err}. The {@link Err} is stored in a reference
+ * shared by all spliterators split off the same source, so every split stops once any of them failed.
+ * @param <T> The type of the source elements
+ * @param <U> The type of the Ok value
+ * @param <E> The type of the Err value
+ */
+final class TryMapSpliterator<T, U, E> implements Spliterator<U>, Consumer<T> {
+    /**
+     * Characteristics that survive the mapping.
+     */
+    private static final int KEPT_CHARACTERISTICS = ORDERED | IMMUTABLE | CONCURRENT;
+
+    /**
+     * The source spliterator.
+     */
+    private final Spliterator<T> source;
+
+    /**
+     * The mapping function.
+     */
+    private final Function<? super T, Result<U, E>> mapFn;
+
+    /**
+     * The first {@link Err}, shared by all splits.
+     */
+    private final AtomicReference<Result<U, E>> failure;
+
+    /**
+     * The outcome of the last mapped element.
+     */
+    private Result<U, E> current;
+
+    /**
+     * Ctor.
+     * @param source The source spliterator
+     * @param mapFn The mapping function
+     * @param failure The reference to store the first {@link Err} in
+     */
+    TryMapSpliterator(final Spliterator<T> source, final Function<? super T, Result<U, E>> mapFn,
+                      final AtomicReference<Result<U, E>> failure) {
+        this.source = source;
+        this.mapFn = mapFn;
+        this.failure = failure;
+    }
+
+    @Override
+    public void accept(final T element) {
+        this.current = this.mapFn.apply(element);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super U> action) {
+        if (this.failure.get() != null || !this.source.tryAdvance(this)) {
+            return false;
+        }
+        final Result<U, E> result = this.current;
+        this.current = null;
+        if (result.isErr()) {
+            this.failure.compareAndSet(null, result);
+            return false;
+        }
+        action.accept(result.unwrapOr(null));
+        return true;
+    }
+
+    @Override
+    public Spliterator<U> trySplit() {
+        if (this.failure.get() != null) {
+            return null;
+        }
+        final Spliterator<T> prefix = this.source.trySplit();
+        return prefix == null ? null : new TryMapSpliterator<>(prefix, this.mapFn, this.failure);
+    }
+
+    @Override
+    public long estimateSize() {
+        return this.failure.get() == null ? this.source.estimateSize() : 0;
+    }
+
+    @Override
+    public int characteristics() {
+        return this.source.characteristics() & KEPT_CHARACTERISTICS;
+    }
+}
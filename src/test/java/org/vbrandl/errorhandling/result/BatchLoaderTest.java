@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.Test;
+
+public final class BatchLoaderTest {
+
+    private final List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+
+    private final Function<List<Integer>, Map<Integer, Result<String, String>>> even = keys -> {
+        this.batches.add(new ArrayList<>(keys));
+        final Map<Integer, Result<String, String>> res = new HashMap<>();
+        for (final Integer key : keys) {
+            if (key % 2 == 0) {
+                res.put(key, Result.ok("v" + key));
+            }
+        }
+        return res;
+    };
+
+    @Test
+    public void sizeFlushTest() {
+        final BatchLoader<Integer, String, String> loader =
+            new BatchLoader<>(this.even, k -> "missing " + k, 3, 1, TimeUnit.HOURS, Runnable::run);
+        final CompletableFuture<Result<String, String>> first = loader.load(1);
+        final CompletableFuture<Result<String, String>> second = loader.load(2);
+        assertEquals(first.isDone(), false);
+        final CompletableFuture<Result<String, String>> third = loader.load(4);
+        assertEquals(first.join(), Result.err("missing 1"));
+        assertEquals(second.join(), Result.ok("v2"));
+        assertEquals(third.join(), Result.ok("v4"));
+        assertEquals(this.batches, Arrays.asList(Arrays.asList(1, 2, 4)));
+    }
+
+    @Test
+    public void windowFlushTest() {
+        final BatchLoader<Integer, String, String> loader =
+            new BatchLoader<>(this.even, k -> "missing " + k, 100, 20, TimeUnit.MILLISECONDS, Runnable::run);
+        final List<Result<String, String>> res = loader.loadAll(Arrays.asList(2, 3)).join();
+        assertEquals(res, Arrays.asList(Result.ok("v2"), Result.err("missing 3")));
+        assertEquals(this.batches.size(), 1);
+    }
+
+    @Test
+    public void dedupeTest() {
+        final BatchLoader<Integer, String, String> loader =
+            new BatchLoader<>(this.even, k -> "missing " + k, 100, 1, TimeUnit.HOURS, Runnable::run);
+        final CompletableFuture<Result<String, String>> first = loader.load(2);
+        assertSame(loader.load(2), first);
+        loader.flush();
+        assertEquals(first.join(), Result.ok("v2"));
+        assertEquals(this.batches, Arrays.asList(Arrays.asList(2)));
+    }
+
+    @Test
+    public void emptyFlushTest() {
+        final BatchLoader<Integer, String, String> loader =
+            new BatchLoader<>(this.even, k -> "missing " + k, 100, 1, TimeUnit.HOURS, Runnable::run);
+        loader.flush();
+        assertEquals(this.batches.size(), 0);
+    }
+
+    @Test(expected = CompletionException.class)
+    public void failingBatchTest() {
+        final BatchLoader<Integer, String, String> loader = new BatchLoader<>(
+            keys -> {
+                throw new IllegalStateException("down");
+            }, k -> "missing " + k, 1, 1, TimeUnit.HOURS, Runnable::run);
+        loader.load(1).join();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidBatchSizeTest() {
+        new BatchLoader<>(this.even, k -> "missing " + k, 0, 1, TimeUnit.HOURS, Runnable::run);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public final class BindScopeTest {
+
+    private static Result<Integer, String> half(final int value) {
+        return value % 2 == 0
+            ? Result.ok(value / 2)
+            : Result.err(value + " is odd");
+    }
+
+    @Test
+    public void allOkTest() {
+        final Result<Integer, String> res = Result.run(scope -> {
+            final int a = scope.bind(half(8));
+            final int b = scope.bind(half(a));
+            return Result.ok(a + b);
+        });
+        assertEquals(res, Result.ok(6));
+    }
+
+    @Test
+    public void exitsOnErrTest() {
+        final AtomicInteger reached = new AtomicInteger();
+        final Result<Integer, String> res = Result.run(scope -> {
+            final int a = scope.bind(half(6));
+            final int b = scope.bind(half(a));
+            reached.incrementAndGet();
+            return Result.ok(b);
+        });
+        assertEquals(res, Result.err("3 is odd"));
+        assertEquals(reached.get(), 0);
+    }
+
+    @Test
+    public void blockReturnsErrTest() {
+        final Result<Integer, String> res = Result.run(scope -> half(scope.bind(half(6))));
+        assertEquals(res, Result.err("3 is odd"));
+    }
+
+    @Test
+    public void emptyOkTest() {
+        final Result<Boolean, String> res = Result.run(scope -> Result.ok(scope.bind(Result.ok(null)) == null));
+        assertEquals(res, Result.ok(true));
+    }
+
+    @Test
+    public void notCaughtAsExceptionTest() {
+        final Result<Integer, String> res = Result.run(scope -> {
+            try {
+                return Result.ok(scope.bind(half(3)));
+            } catch (final Exception ex) {
+                return Result.err("swallowed");
+            }
+        });
+        assertEquals(res, Result.err("3 is odd"));
+    }
+
+    @Test
+    public void nestedInnerScopeTest() {
+        final Result<Integer, String> res = Result.run(outer -> {
+            final Result<Integer, String> inner = Result.run(scope -> Result.ok(scope.bind(half(5))));
+            return Result.ok(outer.bind(inner.orElse(e -> Result.ok(-1))));
+        });
+        assertEquals(res, Result.ok(-1));
+    }
+
+    @Test
+    public void nestedOuterScopeTest() {
+        final AtomicInteger reached = new AtomicInteger();
+        final Result<Integer, String> res = Result.run(outer -> {
+            final Result<Integer, String> inner = Result.run(scope -> Result.ok(outer.bind(half(5))));
+            reached.incrementAndGet();
+            return inner;
+        });
+        assertEquals(res, Result.err("5 is odd"));
+        assertEquals(reached.get(), 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void escapedScopeTest() {
+        final AtomicReference<BindScope<String>> escaped = new AtomicReference<>();
+        Result.<Integer, String>run(scope -> {
+            escaped.set(scope);
+            return Result.ok(1);
+        });
+        escaped.get().bind(Result.ok(1));
+    }
+}
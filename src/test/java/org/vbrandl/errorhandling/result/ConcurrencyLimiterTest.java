@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public final class ConcurrencyLimiterTest {
+
+    @Test
+    public void rejectTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(1, 1, 1, 1, TimeUnit.SECONDS, "busy");
+        final Result<Integer, String> outer = limiter.call(() -> {
+            final Result<Integer, String> fst = limiter.call(() -> Result.ok(1));
+            final Result<Integer, String> snd = limiter.call(() -> Result.ok(2));
+            assertEquals(fst, Result.err("busy"));
+            assertSame(fst, snd);
+            return Result.ok(3);
+        });
+        assertEquals(outer, Result.ok(3));
+        assertEquals(limiter.rejected(), 2L);
+        assertEquals(limiter.inFlight(), 0);
+    }
+
+    @Test
+    public void aimdIncreaseTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(2, 1, 10, 1, TimeUnit.SECONDS, "busy");
+        for (int i = 0; i < 5; i++) {
+            limiter.call(() -> Result.<Integer, String>ok(1));
+        }
+        assertEquals(limiter.limit(), 3);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(nest(limiter, limiter.limit()), Result.ok(1));
+        }
+        assertEquals(limiter.limit(), 10);
+    }
+
+    @Test
+    public void aimdIdleTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(4, 1, 10, 1, TimeUnit.SECONDS, "busy");
+        for (int i = 0; i < 5; i++) {
+            limiter.call(() -> Result.<Integer, String>ok(1));
+        }
+        assertEquals(limiter.limit(), 4);
+    }
+
+    @Test
+    public void errDecreaseTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(10, 2, 10, 1, TimeUnit.SECONDS, "busy");
+        for (int i = 0; i < 50; i++) {
+            limiter.call(() -> Result.<Integer, String>err("down"));
+        }
+        assertEquals(limiter.limit(), 2);
+        assertEquals(limiter.errorRatio() > 0.9, true);
+    }
+
+    @Test
+    public void exceptionDecreaseTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(10, 2, 10, 1, TimeUnit.SECONDS, "busy");
+        for (int i = 0; i < 50; i++) {
+            try {
+                limiter.call(() -> {
+                    throw new IllegalStateException("down");
+                });
+                fail();
+            } catch (final IllegalStateException expected) {
+            }
+        }
+        assertEquals(limiter.limit(), 2);
+        assertEquals(limiter.errorRatio() > 0.9, true);
+        assertEquals(limiter.inFlight(), 0);
+    }
+
+    @Test
+    public void latencyDecreaseTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.aimd(10, 1, 10, 1, TimeUnit.NANOSECONDS,
+                                                                           "busy");
+        limiter.call(() -> {
+            sleep(1);
+            return Result.<Integer, String>ok(1);
+        });
+        assertEquals(limiter.limit(), 9);
+    }
+
+    @Test
+    public void gradientTest() {
+        final ConcurrencyLimiter<String> limiter = ConcurrencyLimiter.gradient(4, 1, 100, "busy");
+        for (int i = 0; i < 50; i++) {
+            limiter.call(() -> limiter.call(() -> limiter.call(() -> {
+                sleep(1);
+                return Result.<Integer, String>ok(1);
+            })));
+        }
+        final int grown = limiter.limit();
+        assertEquals(grown > 4, true);
+        for (int i = 0; i < 20; i++) {
+            limiter.call(() -> {
+                sleep(5);
+                return Result.<Integer, String>ok(1);
+            });
+        }
+        assertEquals(limiter.limit() < grown, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidLimitTest() {
+        ConcurrencyLimiter.gradient(20, 1, 10, "busy");
+    }
+
+    private static Result<Integer, String> nest(final ConcurrencyLimiter<String> limiter, final int depth) {
+        return limiter.call(() -> depth <= 1 ? Result.ok(1) : nest(limiter, depth - 1));
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+
+public final class DeadlineTest {
+
+    private static final String TIMEOUT = "timeout";
+
+    @Test
+    public void notExpiredTest() {
+        final Deadline<String> deadline = Deadline.after(1, TimeUnit.HOURS, TIMEOUT);
+        assertEquals(deadline.isExpired(), false);
+        assertEquals(deadline.remaining(TimeUnit.MINUTES) > 0, true);
+        assertEquals(deadline.check(Result.ok(3)), Result.ok(3));
+    }
+
+    @Test
+    public void expiredTest() {
+        final Deadline<String> deadline = Deadline.after(0, TimeUnit.NANOSECONDS, TIMEOUT);
+        assertEquals(deadline.isExpired(), true);
+        assertEquals(deadline.remaining(TimeUnit.NANOSECONDS), 0L);
+        assertEquals(deadline.check(Result.ok(3)), Result.err(TIMEOUT));
+    }
+
+    @Test
+    public void andThenSkipsStageTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Deadline<String> deadline = Deadline.after(0, TimeUnit.NANOSECONDS, TIMEOUT);
+        final Result<Integer, String> res = deadline.andThen(Result.ok(3), x -> {
+            calls.incrementAndGet();
+            return Result.ok(x + 1);
+        });
+        assertEquals(res, Result.err(TIMEOUT));
+        assertEquals(calls.get(), 0);
+    }
+
+    @Test
+    public void andThenKeepsErrTest() {
+        final Deadline<String> deadline = Deadline.after(0, TimeUnit.NANOSECONDS, TIMEOUT);
+        final Result<Integer, String> res = deadline.andThen(Result.<Integer, String>err("other"),
+            x -> Result.ok(x + 1));
+        assertEquals(res, Result.err("other"));
+    }
+
+    @Test
+    public void guardTest() {
+        final Deadline<String> live = Deadline.after(1, TimeUnit.HOURS, TIMEOUT);
+        final Deadline<String> dead = Deadline.after(0, TimeUnit.NANOSECONDS, TIMEOUT);
+        final Function<Integer, Result<Integer, String>> inc = x -> Result.ok(x + 1);
+        assertEquals(Result.<Integer, String>ok(3).andThen(live.guard(inc)), Result.ok(4));
+        assertEquals(Result.<Integer, String>ok(3).andThen(dead.guard(inc)), Result.err(TIMEOUT));
+    }
+
+    @Test
+    public void withinCompletesWithTimeoutTest() throws Exception {
+        final Deadline<String> deadline = Deadline.after(20, TimeUnit.MILLISECONDS, TIMEOUT);
+        final CompletableFuture<Result<Integer, String>> never = new CompletableFuture<>();
+        final Result<Integer, String> res = deadline.within(never).get(5, TimeUnit.SECONDS);
+        assertEquals(res, Result.err(TIMEOUT));
+    }
+
+    @Test
+    public void withinPassesResultTest() throws Exception {
+        final Deadline<String> deadline = Deadline.after(1, TimeUnit.HOURS, TIMEOUT);
+        final CompletableFuture<Result<Integer, String>> future = new CompletableFuture<>();
+        final CompletableFuture<Result<Integer, String>> bounded = deadline.within(future);
+        future.complete(Result.ok(3));
+        assertEquals(bounded.get(5, TimeUnit.SECONDS), Result.ok(3));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collections;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+
+public final class ErrSamplerTest {
+
+    @After
+    public void reset() {
+        ErrSampler.reset();
+    }
+
+    private static Result<Integer, String> fail() {
+        return Result.err("failed");
+    }
+
+    @Test
+    public void disabledTest() {
+        final Err<Integer, String> err = new Err<>("42");
+        assertEquals(err.origin(), Collections.emptyList());
+        assertEquals(ErrSampler.report(), Collections.emptyMap());
+    }
+
+    @Test
+    public void sampleEveryTest() {
+        ErrSampler.sampleEvery(1);
+        final Err<Integer, String> err = (Err<Integer, String>) fail();
+        final StackTraceElement site = err.origin().get(0);
+        assertEquals(site.getClassName(), ErrSamplerTest.class.getName());
+        assertEquals(site.getMethodName(), "fail");
+        assertEquals(err.origin().size() <= 8, true);
+    }
+
+    @Test
+    public void mapErrKeepsOriginTest() {
+        ErrSampler.sampleEvery(1);
+        final Err<Integer, String> err = (Err<Integer, String>) fail();
+        final Err<Integer, Integer> mapped = (Err<Integer, Integer>) err.mapErr(String::length);
+        final Err<Integer, String> mappedWith = (Err<Integer, String>) mapped.mapErrWith("#", (ctx, x) -> ctx + x);
+        assertEquals(mapped.origin(), err.origin());
+        assertEquals(mappedWith.origin(), err.origin());
+        assertEquals(mappedWith.origin().get(0).getMethodName(), "fail");
+        assertEquals(ErrSampler.report().values().iterator().next(), Long.valueOf(1));
+    }
+
+    @Test
+    public void mapErrOfUnsampledTest() {
+        final Result<Integer, Integer> unsampled = Result.err(1);
+        ErrSampler.sampleEvery(1);
+        final Err<Integer, Integer> err = (Err<Integer, Integer>) unsampled.mapErr(x -> x + 1);
+        assertEquals(err.origin(), Collections.emptyList());
+    }
+
+    @Test
+    public void libraryFramesSkippedTest() {
+        ErrSampler.sampleEvery(1);
+        final Err<Long, ParseError> err = (Err<Long, ParseError>) Parser.integer().parse("x");
+        assertEquals(err.origin().get(0).getClassName(), ErrSamplerTest.class.getName());
+        assertEquals(err.origin().get(0).getMethodName(), "libraryFramesSkippedTest");
+    }
+
+    @Test
+    public void maxDepthTest() {
+        ErrSampler.sampleEvery(1);
+        ErrSampler.maxDepth(1);
+        final Err<Integer, String> err = (Err<Integer, String>) fail();
+        assertEquals(err.origin().size(), 1);
+    }
+
+    @Test
+    public void sampleTypeTest() {
+        ErrSampler.sampleType(IllegalStateException.class);
+        final Err<Integer, Object> sampled = new Err<>(new IllegalStateException());
+        final Err<Integer, Object> ignored = new Err<>("42");
+        assertEquals(sampled.origin().isEmpty(), false);
+        assertEquals(ignored.origin().isEmpty(), true);
+    }
+
+    @Test
+    public void reportTest() {
+        ErrSampler.sampleEvery(1);
+        for (int i = 0; i < 10; i++) {
+            fail();
+        }
+        final Map<StackTraceElement, Long> report = ErrSampler.report();
+        assertEquals(report.size(), 1);
+        final StackTraceElement site = report.keySet().iterator().next();
+        assertEquals(site.getMethodName(), "fail");
+        assertEquals(report.get(site), Long.valueOf(10));
+        assertEquals(ErrSampler.overflow(), 0L);
+    }
+
+    @Test
+    public void samplingIntervalTest() {
+        ErrSampler.sampleEvery(4);
+        int sampled = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (!((Err<Integer, String>) fail()).origin().isEmpty()) {
+                sampled++;
+            }
+        }
+        assertEquals(sampled > 500 && sampled < 1500, true);
+    }
+
+    @Test
+    public void equalityIgnoresOriginTest() {
+        final Err<Integer, String> plain = new Err<>("42");
+        ErrSampler.sampleEvery(1);
+        final Err<Integer, String> sampled = new Err<>("42");
+        assertEquals(plain, sampled);
+    }
+}
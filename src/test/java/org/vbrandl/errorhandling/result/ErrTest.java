@@ -67,6 +67,12 @@ public final class ErrTest {
         assertEquals(err.err(), Optional.of(3));
     }
 
+    @Test
+    public void streamTest() {
+        final Err<Integer, ?> err = new Err(3);
+        assertEquals(err.stream().count(), 0L);
+    }
+
     @Test
     public void isOkTest() {
         final Err<?, Integer> err = new Err(3);
@@ -121,6 +127,30 @@ public final class ErrTest {
         assertEquals(err.orElse(x -> Result.err(x + 1)), new Err(43));
     }
 
+    @Test
+    public void mapWithTest() {
+        final Err<Integer, Integer> err = new Err(3);
+        assertEquals(err.mapWith(2, (ctx, x) -> x * ctx), new Err(3));
+    }
+
+    @Test
+    public void andThenWithTest() {
+        final Err<Integer, Integer> err = new Err(3);
+        assertEquals(err.andThenWith(2, (ctx, x) -> Result.ok(x * ctx)), new Err(3));
+    }
+
+    @Test
+    public void mapErrWithTest() {
+        final Err<Boolean, Integer> err = new Err(42);
+        assertEquals(err.mapErrWith(2, (ctx, x) -> x * ctx), new Err(84));
+    }
+
+    @Test
+    public void orElseWithTest() {
+        final Err<Boolean, Integer> err = new Err(42);
+        assertEquals(err.orElseWith(1, (ctx, x) -> Result.err(x + ctx)), new Err(43));
+    }
+
     @Test
     public void ifOkTest() {
         final Err<?, Integer> err = new Err(42);
@@ -199,4 +229,18 @@ public final class ErrTest {
         final Err<String, Boolean> snd = new Err("42");
         assertEquals(fst.hashCode(), snd.hashCode());
     }
+
+    @Test
+    public void nullErrorTest() {
+        final Err<String, Boolean> fst = new Err<>(null);
+        final Err<String, Boolean> snd = new Err<>(null);
+        assertEquals(fst, snd);
+        assertEquals(fst.hashCode(), snd.hashCode());
+        assertNotEquals(fst, new Err<String, Boolean>(true));
+    }
+
+    @Test
+    public void hashCodeDiffersTest() {
+        assertNotEquals(new Err<String, String>("42").hashCode(), new Err<String, String>("43").hashCode());
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class ErrorContextTest {
+
+    private static Result<String, String> readFile(final String path) {
+        return Result.<String, String>err("permission denied").context("reading %s", path);
+    }
+
+    private static Result<String, String> loadConfig() {
+        return readFile("/etc/app.conf").context("loading config");
+    }
+
+    @Test
+    public void reportTest() {
+        final Err<String, String> err = (Err<String, String>) loadConfig();
+        assertEquals(err.report(), "loading config: reading /etc/app.conf: permission denied");
+        assertEquals(err.getErr(), "permission denied");
+    }
+
+    @Test
+    public void messagesTest() {
+        final Err<String, String> err = (Err<String, String>) loadConfig();
+        final ErrorContext context = err.errorContext().get();
+        assertEquals(context.messages(), Arrays.asList("loading config", "reading /etc/app.conf"));
+        assertEquals(context.message(), "loading config");
+        assertEquals(context.next().message(), "reading /etc/app.conf");
+        assertEquals(context.next().next(), null);
+        assertEquals(context.toString(), "loading config: reading /etc/app.conf");
+    }
+
+    @Test
+    public void lazyRenderingTest() {
+        final AtomicInteger rendered = new AtomicInteger();
+        final Err<String, String> err = (Err<String, String>) Result.<String, String>err("e").context(() -> {
+            rendered.incrementAndGet();
+            return "lazy";
+        });
+        assertEquals(rendered.get(), 0);
+        assertEquals(err.report(), "lazy: e");
+        assertEquals(rendered.get(), 1);
+    }
+
+    @Test
+    public void twoArgTemplateTest() {
+        final Err<String, String> err = (Err<String, String>) Result.<String, String>err("e")
+            .context("%s of %d", "part", 3);
+        assertEquals(err.report(), "part of 3: e");
+    }
+
+    @Test
+    public void okIgnoresContextTest() {
+        final Result<String, String> ok = Result.ok("v");
+        assertSame(ok.context("ignored"), ok);
+        assertSame(ok.context(() -> "ignored"), ok);
+        assertSame(ok.context("%s", 1), ok);
+        assertSame(ok.context("%s %s", 1, 2), ok);
+    }
+
+    @Test
+    public void noContextTest() {
+        final Err<String, String> err = new Err<>("e");
+        assertEquals(err.errorContext(), Optional.empty());
+        assertEquals(err.report(), "e");
+    }
+
+    @Test
+    public void mapErrKeepsContextTest() {
+        final Err<String, Integer> err = (Err<String, Integer>) loadConfig().mapErr(String::length);
+        assertEquals(err.report(), "loading config: reading /etc/app.conf: 17");
+    }
+
+    @Test
+    public void equalityIgnoresContextTest() {
+        assertEquals(loadConfig(), Result.err("permission denied"));
+    }
+}
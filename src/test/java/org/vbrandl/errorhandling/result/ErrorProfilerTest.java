@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public final class ErrorProfilerTest {
+
+    @After
+    public void tearDown() {
+        ErrorProfiler.detach();
+    }
+
+    @Test
+    public void topTest() {
+        final ErrorProfiler<String> profiler = new ErrorProfiler<>(3, 0.001, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            profiler.record("unique " + i);
+            if (i % 2 == 0) {
+                profiler.record("timeout");
+            }
+            if (i % 5 == 0) {
+                profiler.record("not found");
+            }
+            if (i % 10 == 0) {
+                profiler.record("denied");
+            }
+        }
+        final List<String> top = profiler.top().stream().map(ErrorProfiler.Entry::error).collect(Collectors.toList());
+        assertEquals(top.subList(0, 2).toString(), "[timeout, not found]");
+        assertEquals(profiler.total(), 18000L);
+        final ErrorProfiler.Entry<String> first = profiler.top().get(0);
+        assertEquals(first.count() >= 5000, true);
+        assertEquals(first.count() <= 5000 + profiler.errorBound(), true);
+        assertEquals(first.rate() > 0.27 && first.rate() < 0.29, true);
+    }
+
+    @Test
+    public void nullErrorTest() {
+        final ErrorProfiler<String> profiler = new ErrorProfiler<>(2, 0.01, 0.01);
+        IntStream.range(0, 10).forEach(i -> profiler.record((String) null));
+        profiler.record("once");
+        assertEquals(profiler.top().get(0).error(), null);
+        assertEquals(profiler.top().get(0).count(), 10L);
+        assertEquals(profiler.top().size(), 2);
+    }
+
+    @Test
+    public void estimateTest() {
+        final ErrorProfiler<Integer> profiler = new ErrorProfiler<>(5, 0.01, 0.01);
+        IntStream.range(0, 100).forEach(i -> profiler.record(7));
+        IntStream.range(0, 1000).forEach(profiler::record);
+        assertEquals(profiler.estimate(7) >= 101, true);
+        assertEquals(profiler.estimate(7) <= 101 + profiler.errorBound(), true);
+    }
+
+    @Test
+    public void recordResultTest() {
+        final ErrorProfiler<String> profiler = new ErrorProfiler<>(2, 0.01, 0.01);
+        profiler.record(Result.<Integer, String>ok(1));
+        profiler.record(Result.<Integer, String>err("a"));
+        assertEquals(profiler.total(), 1L);
+        assertEquals(profiler.top().get(0).error(), "a");
+    }
+
+    @Test
+    public void attachTest() {
+        final ErrorProfiler<String> profiler = new ErrorProfiler<>(2, 0.01, 0.01);
+        ErrorProfiler.attach(String.class, profiler);
+        Result.<Integer, String>err("a");
+        Result.<Integer, Integer>err(1);
+        Result.<Integer, Integer>err(2).mapErr(i -> "b");
+        Result.<Integer, String>err("d").mapErr(s -> s + "!").mapErrWith("?", (ctx, s) -> s + ctx);
+        ErrorProfiler.detach();
+        Result.<Integer, String>err("c");
+        assertEquals(profiler.total(), 2L);
+        assertEquals(profiler.estimate("b"), 0L);
+        assertEquals(profiler.estimate("d!?"), 0L);
+    }
+
+    @Test
+    public void resetTest() {
+        final ErrorProfiler<String> profiler = new ErrorProfiler<>(2, 0.01, 0.01);
+        profiler.record("a");
+        profiler.reset();
+        assertEquals(profiler.total(), 0L);
+        assertEquals(profiler.estimate("a"), 0L);
+        assertEquals(profiler.top().isEmpty(), true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidEpsilonTest() {
+        new ErrorProfiler<String>(2, 0, 0.01);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public final class ErrorReporterTest {
+
+    private final List<String> lines = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void suppressTest() {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, 64, 1, TimeUnit.HOURS);
+        for (int i = 0; i < 5; i++) {
+            reporter.accept("timeout");
+        }
+        reporter.accept("refused");
+        reporter.close();
+        assertEquals(this.lines.size(), 3);
+        assertEquals(this.lines.subList(0, 2), Arrays.asList("timeout", "refused"));
+        assertEquals(this.lines.get(2), "timeout: 4 more suppressed");
+    }
+
+    @Test
+    public void maxWindowsTest() {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, 8192, 1, TimeUnit.HOURS);
+        reporter.accept("k0");
+        reporter.accept("k0");
+        for (int i = 1; i <= 4096; i++) {
+            reporter.accept("k" + i);
+        }
+        reporter.accept("k0");
+        reporter.close();
+        assertEquals(this.lines.get(4096), "k0: 1 more suppressed");
+        assertEquals(this.lines.get(4097), "k4096");
+        assertEquals(this.lines.get(4098), "k0");
+    }
+
+    @Test
+    public void keyTest() {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, s -> s.substring(0, 1), 64, 1,
+                                                                   TimeUnit.HOURS);
+        reporter.accept("a1");
+        reporter.accept("a2");
+        reporter.accept("b1");
+        reporter.close();
+        assertEquals(this.lines.subList(0, 2), Arrays.asList("a1", "b1"));
+        assertEquals(this.lines.get(2), "a: 1 more suppressed");
+    }
+
+    @Test
+    public void windowTest() throws InterruptedException {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, 64, 20, TimeUnit.MILLISECONDS);
+        reporter.accept("timeout");
+        reporter.accept("timeout");
+        Thread.sleep(200);
+        reporter.accept("timeout");
+        reporter.close();
+        assertEquals(this.lines, Arrays.asList("timeout", "timeout: 1 more suppressed", "timeout"));
+    }
+
+    @Test
+    public void dropTest() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ErrorReporter<String> reporter = new ErrorReporter<>(line -> {
+            this.lines.add(line);
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }, 2, 1, TimeUnit.HOURS);
+        reporter.accept("first");
+        blocked.await();
+        for (int i = 0; i < 10; i++) {
+            reporter.accept("e" + i);
+        }
+        assertEquals(reporter.dropped(), 8L);
+        release.countDown();
+        reporter.close();
+        assertEquals(this.lines.contains("8 errors dropped"), true);
+    }
+
+    @Test
+    public void reportTest() {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, 64, 1, TimeUnit.HOURS);
+        reporter.report(Result.<Integer, String>ok(1));
+        reporter.report(Result.<Integer, String>err("a"));
+        Result.<Integer, String>err("b").ifErr(reporter);
+        reporter.close();
+        assertEquals(this.lines, Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void failingKeyAndToStringTest() {
+        final Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString");
+            }
+        };
+        final ErrorReporter<Object> reporter = new ErrorReporter<>(this.lines::add, e -> {
+            if (e instanceof Integer) {
+                throw new IllegalStateException("key");
+            }
+            return e;
+        }, 64, 1, TimeUnit.HOURS);
+        reporter.accept(broken);
+        reporter.accept(1);
+        reporter.accept(2);
+        reporter.accept("after");
+        reporter.close();
+        assertEquals(this.lines.get(0).startsWith(broken.getClass().getName() + "@"), true);
+        assertEquals(this.lines.subList(1, 3), Arrays.asList("1", "after"));
+        assertEquals(this.lines.get(3), "class java.lang.Integer: 1 more suppressed");
+        assertEquals(this.lines.size(), 4);
+    }
+
+    @Test
+    public void closedTest() {
+        final ErrorReporter<String> reporter = new ErrorReporter<>(this.lines::add, 64, 1, TimeUnit.HOURS);
+        reporter.close();
+        reporter.accept("late");
+        assertEquals(this.lines, Collections.emptyList());
+        assertEquals(reporter.dropped(), 1L);
+    }
+}
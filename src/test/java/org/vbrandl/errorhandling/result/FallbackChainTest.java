@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Test;
+
+public final class FallbackChainTest {
+
+    @Test
+    public void firstOkTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final List<Supplier<Result<String, String>>> sources = Arrays.asList(
+            () -> Result.ok("local"), () -> {
+                calls.incrementAndGet();
+                return Result.ok("global");
+            });
+        final FallbackChain<String, String> chain = new FallbackChain<>(sources, 0, 0.1);
+        assertEquals(chain.get(), Result.ok("local"));
+        assertEquals(calls.get(), 0);
+        assertEquals(chain.order(), Arrays.asList(0, 1));
+    }
+
+    @Test
+    public void lastErrTest() {
+        final List<Supplier<Result<String, String>>> sources = Arrays.asList(
+            () -> Result.err("a"), () -> Result.err("b"));
+        final FallbackChain<String, String> chain = new FallbackChain<>(sources, 0, 0.1);
+        assertEquals(chain.get(), Result.err("b"));
+    }
+
+    @Test
+    public void reorderTest() {
+        final AtomicInteger failing = new AtomicInteger();
+        final List<Supplier<Result<String, String>>> sources = Arrays.asList(
+            () -> {
+                failing.incrementAndGet();
+                sleep(5);
+                return Result.err("down");
+            },
+            () -> Result.ok("regional"));
+        final FallbackChain<String, String> chain = new FallbackChain<>(sources, 0, 0.5);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(chain.get(), Result.ok("regional"));
+        }
+        assertEquals(chain.order(), Arrays.asList(1, 0));
+        assertEquals(failing.get(), 1);
+        assertEquals(chain.successRate(0) <= 0.5, true);
+    }
+
+    @Test
+    public void explorationTest() {
+        final AtomicBoolean recovered = new AtomicBoolean();
+        final List<Supplier<Result<String, String>>> sources = Arrays.asList(
+            () -> recovered.get() ? Result.ok("local") : Result.err("down"),
+            () -> Result.ok("regional"));
+        final FallbackChain<String, String> chain = new FallbackChain<>(sources, 1, 0.5);
+        chain.get();
+        chain.get();
+        recovered.set(true);
+        for (int i = 0; i < 5; i++) {
+            chain.get();
+        }
+        assertEquals(chain.successRate(0) > 0.9, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyTest() {
+        FallbackChain.<String, String>of(Collections.emptyList());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
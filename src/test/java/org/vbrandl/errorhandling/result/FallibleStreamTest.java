@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Test;
+
+public final class FallibleStreamTest {
+
+    private static Result<Integer, String> parse(final String input) {
+        try {
+            return Result.ok(Integer.parseInt(input));
+        } catch (final NumberFormatException ex) {
+            return Result.err(input);
+        }
+    }
+
+    @Test
+    public void allOkTest() {
+        final FallibleStream<Integer, String> res = FallibleStream.tryMap(Stream.of("1", "2", "3"),
+            FallibleStreamTest::parse);
+        assertEquals(res.stream().collect(Collectors.toList()), Arrays.asList(1, 2, 3));
+        assertEquals(res.failed(), false);
+        assertEquals(res.error(), Optional.empty());
+    }
+
+    @Test
+    public void stopsAtFirstErrTest() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final FallibleStream<Integer, String> res = FallibleStream.tryMap(
+            Stream.of("1", "2", "x", "4", "y").peek(x -> pulled.incrementAndGet()),
+            FallibleStreamTest::parse);
+        assertEquals(res.stream().collect(Collectors.toList()), Arrays.asList(1, 2));
+        assertEquals(res.failed(), true);
+        assertEquals(res.error(), Optional.of("x"));
+        assertEquals(pulled.get(), 3);
+    }
+
+    @Test
+    public void toResultTest() {
+        final FallibleStream<Integer, String> ok = FallibleStream.tryMap(Stream.of("1", "2"),
+            FallibleStreamTest::parse);
+        final int sum = ok.stream().mapToInt(Integer::intValue).sum();
+        assertEquals(ok.toResult(sum), Result.ok(3));
+
+        final FallibleStream<Integer, String> err = FallibleStream.tryMap(Stream.of("1", "z"),
+            FallibleStreamTest::parse);
+        final long count = err.stream().count();
+        assertEquals(err.toResult(count), Result.err("z"));
+    }
+
+    @Test
+    public void parallelTest() {
+        final List<String> input = IntStream.range(0, 100_000).mapToObj(Integer::toString)
+            .collect(Collectors.toList());
+        final FallibleStream<Integer, String> ok = FallibleStream.tryMap(input.parallelStream(),
+            FallibleStreamTest::parse);
+        assertEquals(ok.stream().isParallel(), true);
+        assertEquals(ok.stream().mapToLong(Integer::longValue).sum(), 99_999L * 100_000L / 2);
+
+        input.set(50_000, "broken");
+        final FallibleStream<Integer, String> err = FallibleStream.tryMap(input.parallelStream(),
+            FallibleStreamTest::parse);
+        final long count = err.stream().count();
+        assertEquals(count < input.size(), true);
+        assertEquals(err.error(), Optional.of("broken"));
+    }
+
+    @Test
+    public void closePropagatesTest() {
+        final AtomicInteger closed = new AtomicInteger();
+        final FallibleStream<Integer, String> res = FallibleStream.tryMap(
+            Stream.of("1").onClose(closed::incrementAndGet), FallibleStreamTest::parse);
+        res.stream().close();
+        assertEquals(closed.get(), 1);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Test;
+
+public final class HedgeTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @After
+    public void shutdown() {
+        this.executor.shutdownNow();
+        this.scheduler.shutdownNow();
+    }
+
+    private static Result<String, String> sleepThen(final long millis, final Result<String, String> result) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return Result.err("interrupted");
+        }
+        return result;
+    }
+
+    @Test
+    public void primaryWinsTest() throws Exception {
+        final AtomicInteger backupCalls = new AtomicInteger();
+        final Hedge hedge = Hedge.after(1, TimeUnit.SECONDS, this.executor, this.scheduler);
+        final Result<String, String> res = hedge.<String, String>call(
+            () -> Result.ok("primary"),
+            () -> {
+                backupCalls.incrementAndGet();
+                return Result.ok("backup");
+            }).get();
+        assertEquals(res, Result.ok("primary"));
+        assertEquals(backupCalls.get(), 0);
+    }
+
+    @Test
+    public void backupWinsAndPrimaryIsCancelledTest() throws Exception {
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        final Hedge hedge = Hedge.after(10, TimeUnit.MILLISECONDS, this.executor, this.scheduler);
+        final Result<String, String> res = hedge.<String, String>call(
+            () -> {
+                final Result<String, String> r = sleepThen(10_000, Result.ok("primary"));
+                cancelled.countDown();
+                return r;
+            },
+            () -> Result.ok("backup")).get(5, TimeUnit.SECONDS);
+        assertEquals(res, Result.ok("backup"));
+        assertEquals(cancelled.await(5, TimeUnit.SECONDS), true);
+    }
+
+    @Test
+    public void errStartsBackupImmediatelyTest() throws Exception {
+        final Hedge hedge = Hedge.after(1, TimeUnit.HOURS, this.executor, this.scheduler);
+        final Result<String, String> res = hedge.<String, String>call(
+            () -> Result.err("primary"),
+            () -> Result.ok("backup")).get(5, TimeUnit.SECONDS);
+        assertEquals(res, Result.ok("backup"));
+    }
+
+    @Test
+    public void allErrTest() throws Exception {
+        final Hedge hedge = Hedge.after(1, TimeUnit.MILLISECONDS, this.executor, this.scheduler);
+        final Result<String, String> res = hedge.<String, String>call(
+            () -> sleepThen(20, Result.err("primary")),
+            () -> sleepThen(100, Result.err("backup"))).get(5, TimeUnit.SECONDS);
+        assertEquals(res, Result.err("backup"));
+    }
+
+    @Test
+    public void errorCompletesExceptionallyTest() throws Exception {
+        final Hedge hedge = Hedge.after(1, TimeUnit.HOURS, this.executor, this.scheduler);
+        final AssertionError error = new AssertionError("boom");
+        final Future<Result<String, String>> res = hedge.<String, String>call(
+            Collections.<Supplier<Result<String, String>>>singletonList(() -> {
+                throw error;
+            }));
+        try {
+            res.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (final ExecutionException ex) {
+            assertSame(ex.getCause(), error);
+        }
+    }
+
+    @Test
+    public void errorStartsBackupTest() throws Exception {
+        final Hedge hedge = Hedge.after(1, TimeUnit.HOURS, this.executor, this.scheduler);
+        final Result<String, String> res = hedge.<String, String>call(
+            () -> {
+                throw new AssertionError("primary");
+            },
+            () -> Result.ok("backup")).get(5, TimeUnit.SECONDS);
+        assertEquals(res, Result.ok("backup"));
+    }
+
+    @Test
+    public void cancelInterruptsAttemptsTest() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final Hedge hedge = Hedge.after(1, TimeUnit.HOURS, this.executor, this.scheduler);
+        final Future<Result<String, String>> future = hedge.<String, String>call(
+            () -> {
+                started.countDown();
+                final Result<String, String> r = sleepThen(10_000, Result.ok("primary"));
+                interrupted.countDown();
+                return r;
+            },
+            () -> Result.ok("backup"));
+        started.await(5, TimeUnit.SECONDS);
+        future.cancel(true);
+        assertEquals(interrupted.await(5, TimeUnit.SECONDS), true);
+    }
+
+    @Test
+    public void percentileDelayTest() throws Exception {
+        final Hedge hedge = Hedge.atPercentile(0.9, 7, TimeUnit.SECONDS, this.executor, this.scheduler);
+        assertEquals(hedge.currentDelay(), TimeUnit.SECONDS.toNanos(7));
+        for (int i = 0; i < 128; i++) {
+            hedge.<String, String>call(() -> Result.ok("fast"), () -> Result.ok("backup")).get();
+        }
+        assertEquals(hedge.currentDelay() < TimeUnit.SECONDS.toNanos(7), true);
+    }
+}
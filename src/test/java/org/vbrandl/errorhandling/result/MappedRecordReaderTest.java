@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class MappedRecordReaderTest {
+
+    private static final MappedRecordReader.LineParser<Integer, String> PARSER = (line, number, offset) -> {
+        final String text = StandardCharsets.UTF_8.decode(line).toString();
+        try {
+            return Result.ok(Integer.parseInt(text));
+        } catch (final NumberFormatException ex) {
+            return Result.err(number + "@" + offset + ":" + text);
+        }
+    };
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = Files.createTempFile("records", ".txt");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void partitionTest() throws IOException {
+        Files.write(this.file, "1\r\n2\nx\n3".getBytes(StandardCharsets.UTF_8));
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file)) {
+            final Partition<Integer, String> res = reader.partition(PARSER);
+            assertEquals(res.oks(), Arrays.asList(1, 2, 3));
+            assertEquals(res.errs(), Collections.singletonList("3@5:x"));
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullResultTest() throws IOException {
+        Files.write(this.file, "1\n2\n".getBytes(StandardCharsets.UTF_8));
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file)) {
+            reader.<Integer, String>stream((line, number, offset) -> null).count();
+        }
+    }
+
+    @Test
+    public void emptyFileTest() throws IOException {
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file)) {
+            assertEquals(reader.chunks(), 0);
+            assertEquals(reader.stream(PARSER).count(), 0L);
+        }
+    }
+
+    @Test
+    public void emptyLineTest() throws IOException {
+        Files.write(this.file, "1\n\n2\n".getBytes(StandardCharsets.UTF_8));
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file)) {
+            final Partition<Integer, String> res = reader.partition(PARSER);
+            assertEquals(res.oks(), Arrays.asList(1, 2));
+            assertEquals(res.errs(), Collections.singletonList("2@2:"));
+        }
+    }
+
+    @Test
+    public void chunkedTest() throws IOException {
+        final List<String> lines = IntStream.range(0, 10000).mapToObj(Integer::toString).collect(Collectors.toList());
+        Files.write(this.file, lines, StandardCharsets.UTF_8);
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file, 100)) {
+            assertEquals(reader.chunks() > 1, true);
+            final List<Integer> res = reader.stream(PARSER).map(r -> r.unwrapOr(-1)).collect(Collectors.toList());
+            assertEquals(res, IntStream.range(0, 10000).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void lineNumberTest() throws IOException {
+        final List<String> lines = IntStream.range(0, 1000).mapToObj(i -> "x" + i).collect(Collectors.toList());
+        Files.write(this.file, lines, StandardCharsets.UTF_8);
+        try (MappedRecordReader reader = MappedRecordReader.open(this.file, 64)) {
+            final List<String> errs = reader.partition(PARSER).errs();
+            assertEquals(errs.size(), 1000);
+            assertEquals(errs.get(999).startsWith("1000@"), true);
+            assertEquals(errs.get(500).startsWith("501@"), true);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidChunkSizeTest() throws IOException {
+        MappedRecordReader.open(this.file, 0);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Test;
+
+public final class MutableResultTest {
+
+    private static final String STATIC_1337 = "1337";
+
+    private static <T> void throwNpeForValue(final T value) {
+        throw new NullPointerException(value.toString());
+    }
+
+    @Test
+    public void initiallyEmptyOkTest() {
+        final MutableResult<Integer, String> res = new MutableResult<>();
+        assertEquals(res.isOk(), true);
+        assertEquals(res.hasValue(), false);
+        assertEquals(res.freeze(), Result.ok(null));
+    }
+
+    @Test
+    public void setOkTest() {
+        final MutableResult<Integer, String> res = new MutableResult<Integer, String>().setOk(3);
+        assertEquals(res.isOk(), true);
+        assertEquals(res.isErr(), false);
+        assertEquals(res.hasValue(), true);
+        assertEquals(res.getOk(), Integer.valueOf(3));
+        assertEquals(res.ok(), Optional.of(3));
+        assertEquals(res.err(), Optional.empty());
+        assertEquals(res.unwrapOr(5), Integer.valueOf(3));
+        assertEquals(res.unwrapOrElse(() -> 5), Integer.valueOf(3));
+        assertEquals(res.unwrapErrOr(STATIC_1337), STATIC_1337);
+        assertEquals(res.unwrapErrOrElse(() -> STATIC_1337), STATIC_1337);
+        assertEquals(res.unwrapOrThrow(NullPointerException::new), Integer.valueOf(3));
+        res.ifErr(MutableResultTest::throwNpeForValue);
+    }
+
+    @Test
+    public void setErrTest() {
+        final MutableResult<Integer, String> res = new MutableResult<Integer, String>().setOk(3).setErr("42");
+        assertEquals(res.isOk(), false);
+        assertEquals(res.isErr(), true);
+        assertEquals(res.hasValue(), false);
+        assertEquals(res.getErr(), "42");
+        assertEquals(res.ok(), Optional.empty());
+        assertEquals(res.err(), Optional.of("42"));
+        assertEquals(res.unwrapOr(5), Integer.valueOf(5));
+        assertEquals(res.unwrapOrElse(() -> 5), Integer.valueOf(5));
+        assertEquals(res.unwrapErrOr(STATIC_1337), "42");
+        assertEquals(res.unwrapErrOrElse(() -> STATIC_1337), "42");
+        assertEquals(res.unwrapErrOrThrow(NullPointerException::new), "42");
+        res.ifOk(MutableResultTest::throwNpeForValue);
+    }
+
+    @Test(expected = ErrHasNoOkException.class)
+    public void getOkOnErrTest() {
+        new MutableResult<Integer, String>().setErr("42").getOk();
+    }
+
+    @Test(expected = EmptyResultException.class)
+    public void getOkOnEmptyTest() {
+        new MutableResult<Integer, String>().getOk();
+    }
+
+    @Test(expected = OkHasNoErrException.class)
+    public void getErrOnOkTest() {
+        new MutableResult<Integer, String>().setOk(3).getErr();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void unwrapOrThrowOnErrTest() {
+        new MutableResult<Integer, String>().setErr("42").unwrapOrThrow(NullPointerException::new);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void unwrapErrOrThrowOnOkTest() {
+        new MutableResult<Integer, String>().setOk(3).unwrapErrOrThrow(NullPointerException::new);
+    }
+
+    @Test
+    public void setFromResultTest() {
+        final MutableResult<Integer, String> res = new MutableResult<>();
+        assertEquals(res.set(Result.ok(3)).freeze(), Result.ok(3));
+        assertEquals(res.set(Result.err("42")).freeze(), Result.err("42"));
+        assertEquals(res.clear().freeze(), Result.ok(null));
+    }
+
+    @Test
+    public void reuseInLoopTest() {
+        final MutableResult<Integer, String> holder = new MutableResult<>();
+        final List<Result<Integer, String>> escaped = new ArrayList<>();
+        int sum = 0;
+        for (int i = 0; i < 6; i++) {
+            if (i % 3 == 0) {
+                holder.setErr("bad " + i);
+            } else {
+                holder.setOk(i);
+            }
+            sum += holder.unwrapOr(0);
+            if (holder.isErr()) {
+                escaped.add(holder.freeze());
+            }
+        }
+        assertEquals(sum, 1 + 2 + 4 + 5);
+        assertEquals(escaped, Arrays.asList(Result.err("bad 0"), Result.err("bad 3")));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+public final class OffHeapResultArrayTest {
+
+    @Test
+    public void setGetTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(100)) {
+            assertEquals(array.length(), 100L);
+            assertEquals(array.result(5), Result.ok(0));
+            array.set(5, 42);
+            array.setErr(6, 7);
+            assertEquals(array.get(5), 42);
+            assertEquals(array.isErr(6), true);
+            assertEquals(array.errorCode(6), 7);
+            assertEquals(array.result(6), Result.err(7));
+            array.set(6, -1);
+            assertEquals(array.result(6), Result.ok(-1));
+        }
+    }
+
+    @Test(expected = ErrHasNoOkException.class)
+    public void getErrTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(10)) {
+            array.setErr(3, 1);
+            array.get(3);
+        }
+    }
+
+    @Test(expected = OkHasNoErrException.class)
+    public void errorCodeOkTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(10)) {
+            array.errorCode(3);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfBoundsTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(10)) {
+            array.get(10);
+        }
+    }
+
+    @Test
+    public void bulkTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(1000)) {
+            for (int i = 0; i < 1000; i++) {
+                if (i % 10 == 0) {
+                    array.setErr(i, 1);
+                } else {
+                    array.set(i, i);
+                }
+            }
+            assertEquals(array.okCount(), 900L);
+            array.map(v -> v * 2);
+            assertEquals(array.get(3), 6);
+            assertEquals(array.errorCode(10), 1);
+            array.filter(v -> v % 4 == 0, 2);
+            assertEquals(array.okCount(), 400L);
+            assertEquals(array.errorCode(3), 2);
+            long expected = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (i % 10 != 0 && i % 2 == 0) {
+                    expected += 2 * i;
+                }
+            }
+            assertEquals(array.sum(), expected);
+        }
+    }
+
+    @Test
+    public void partitionTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(200)) {
+            for (int i = 0; i < 200; i++) {
+                if (i % 3 == 0) {
+                    array.setErr(i, i);
+                } else {
+                    array.set(i, i);
+                }
+            }
+            final long sum = array.sum();
+            final long oks = array.partition();
+            assertEquals(oks, 133L);
+            for (long i = 0; i < 200; i++) {
+                assertEquals(array.isOk(i), i < oks);
+            }
+            assertEquals(array.sum(), sum);
+            assertEquals(array.errorCode(199) % 3, 0);
+        }
+    }
+
+    @Test
+    public void mappedTest() throws IOException {
+        final Path file = Files.createTempFile("results", ".bin");
+        try {
+            try (OffHeapIntResultArray array = OffHeapIntResultArray.map(file, 130)) {
+                array.set(0, 1);
+                array.setErr(129, 9);
+            }
+            try (OffHeapIntResultArray array = OffHeapIntResultArray.map(file, 130)) {
+                assertEquals(array.get(0), 1);
+                assertEquals(array.errorCode(129), 9);
+                assertEquals(array.okCount(), 129L);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void mappedLayoutMismatchTest() throws IOException {
+        final Path file = Files.createTempFile("results", ".bin");
+        try {
+            OffHeapIntResultArray.map(file, 130).close();
+            try {
+                OffHeapIntResultArray.map(file, 200).close();
+                fail();
+            } catch (final IOException expected) {
+            }
+            try {
+                OffHeapLongResultArray.map(file, 130).close();
+                fail();
+            } catch (final IOException expected) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        final OffHeapIntResultArray array = OffHeapIntResultArray.allocate(10);
+        array.close();
+        array.close();
+        array.get(0);
+    }
+
+    @Test
+    public void emptyTest() {
+        try (OffHeapIntResultArray array = OffHeapIntResultArray.allocate(0)) {
+            assertEquals(array.okCount(), 0L);
+            assertEquals(array.partition(), 0L);
+            assertEquals(array.sum(), 0L);
+        }
+    }
+}
@@ -44,7 +44,9 @@ package org.vbrandl.errorhandling.result;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
+import java.util.Collections;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 public final class OkTest {
@@ -73,6 +75,18 @@ public final class OkTest {
         assertEquals(ok.err(), Optional.empty());
     }
 
+    @Test
+    public void streamTest() {
+        final Ok<Integer, ?> ok = new Ok(3);
+        assertEquals(ok.stream().collect(Collectors.toList()), Collections.singletonList(3));
+    }
+
+    @Test
+    public void streamEmptyTest() {
+        final Ok<Integer, ?> ok = new Ok(null);
+        assertEquals(ok.stream().count(), 0L);
+    }
+
     @Test
     public void isOkTest() {
         final Ok<Integer, ?> ok = new Ok(3);
@@ -157,6 +171,36 @@ public final class OkTest {
         ok.ifOk(OkTest::throwNpeForValue);
     }
 
+    @Test
+    public void mapWithTest() {
+        final Ok<Integer, ?> ok = new Ok(3);
+        assertEquals(ok.mapWith(2, (ctx, x) -> x * ctx), new Ok(6));
+    }
+
+    @Test
+    public void mapWithEmptyTest() {
+        final Ok<Integer, ?> ok = new Ok(null);
+        assertEquals(ok.mapWith(2, (ctx, x) -> x * ctx), new Ok(null));
+    }
+
+    @Test
+    public void andThenWithTest() {
+        final Ok<Integer, ?> ok = new Ok(3);
+        assertEquals(ok.andThenWith(2, (ctx, x) -> new Ok(x * ctx)), new Ok(6));
+    }
+
+    @Test
+    public void mapErrWithTest() {
+        final Ok<Integer, Integer> ok = new Ok(3);
+        assertEquals(ok.mapErrWith(2, (ctx, x) -> x * ctx), new Ok(3));
+    }
+
+    @Test
+    public void orElseWithTest() {
+        final Ok<Integer, Integer> ok = new Ok(3);
+        assertEquals(ok.orElseWith(2, (ctx, x) -> Result.err(x * ctx)), new Ok(3));
+    }
+
     @Test
     public void ifOkTest() {
         final Ok<Integer, ?> ok = new Ok(42);
@@ -241,4 +285,15 @@ public final class OkTest {
         final Ok<String, Boolean> snd = new Ok("42");
         assertEquals(fst.hashCode(), snd.hashCode());
     }
+
+    @Test
+    public void hashCodeDiffersTest() {
+        assertNotEquals(new Ok<String, Boolean>("42").hashCode(), new Ok<String, Boolean>("43").hashCode());
+        assertNotEquals(new Ok<String, String>("42").hashCode(), new Err<String, String>("42").hashCode());
+    }
+
+    @Test
+    public void emptyHashCodeTest() {
+        assertEquals(new Ok<String, Boolean>(null).hashCode(), new Ok<String, Boolean>(null).hashCode());
+    }
 }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class ParserTest {
+
+    private static final Parser<Void> WS = Parser.skipWhile(Character::isWhitespace);
+
+    private static final Parser<Long> EXPR = expression();
+
+    private static Parser<Long> expression() {
+        final Parser<Long> number = Parser.integer().skip(WS);
+        final Parser<Long> atom = number.or(Parser.lazy(ParserTest::expression)
+                                                  .between(Parser.character('(').skip(WS),
+                                                           Parser.character(')').skip(WS)));
+        final Parser<Long> product = atom.seq(Parser.character('*').skip(WS).then(atom).many(),
+                                              (first, rest) -> rest.stream().reduce(first, (a, b) -> a * b));
+        return product.seq(Parser.character('+').skip(WS).then(product).many(),
+                           (first, rest) -> rest.stream().reduce(first, Long::sum));
+    }
+
+    @Test
+    public void expressionTest() {
+        assertEquals(EXPR.parse("1 + 2 * (3 + 4) * 2"), Result.ok(29L));
+        assertEquals(EXPR.parse("-5"), Result.ok(-5L));
+    }
+
+    @Test
+    public void furthestFailureTest() {
+        final Result<Long, ParseError> res = EXPR.parse("1 + (2 * )");
+        final ParseError err = res.getErr();
+        assertEquals(err.position(), 9);
+        assertEquals(err.expected(), Arrays.asList("integer", "'('"));
+        assertEquals(err.toString(), "line 1, column 10: expected one of [integer, '(']");
+    }
+
+    @Test
+    public void trailingInputTest() {
+        final ParseError err = EXPR.parse("1 2").getErr();
+        assertEquals(err.position(), 2);
+        assertEquals(err.expected().contains("end of input"), true);
+    }
+
+    @Test
+    public void lineColumnTest() {
+        final Parser<List<String>> words = Parser.span(Character::isLetter, "word").skip(WS).many();
+        final ParseError err = words.parse("ab\ncd\n  1").getErr();
+        assertEquals(err.line(), 3);
+        assertEquals(err.column(), 3);
+    }
+
+    @Test
+    public void labelTest() {
+        final Parser<Long> number = Parser.integer().label("number");
+        assertEquals(number.parse("x").getErr().expected(), Collections.singletonList("number"));
+        final Parser<String> keyword = Parser.literal("let").or(Parser.literal("var")).label("keyword");
+        assertEquals(keyword.parse("val").getErr().expected(), Collections.singletonList("keyword"));
+    }
+
+    @Test
+    public void sepByTest() {
+        final Parser<List<Long>> list = Parser.integer().sepBy(Parser.character(','))
+            .between(Parser.character('['), Parser.character(']'));
+        assertEquals(list.parse("[1,2,3]"), Result.ok(Arrays.asList(1L, 2L, 3L)));
+        assertEquals(list.parse("[]"), Result.ok(Collections.emptyList()));
+        assertEquals(list.parse("[1,]").getErr().position(), 3);
+    }
+
+    @Test
+    public void andThenTest() {
+        final Parser<Integer> port = Parser.integer().andThen(
+            n -> n < 65536 ? Result.<Integer, String>ok(n.intValue()) : Result.<Integer, String>err("port"));
+        assertEquals(port.parse("8080"), Result.ok(8080));
+        assertEquals(port.parse("70000").getErr().expected(), Collections.singletonList("port"));
+    }
+
+    @Test
+    public void optionalTest() {
+        final Parser<String> sign = Parser.literal("+").or(Parser.literal("-")).optional("+");
+        assertEquals(sign.skip(Parser.integer()).parse("12"), Result.ok("+"));
+        assertEquals(sign.skip(Parser.integer()).parse("-12"), Result.ok("-"));
+    }
+
+    @Test
+    public void integerOverflowTest() {
+        assertEquals(Parser.integer().parse("9223372036854775807"), Result.ok(Long.MAX_VALUE));
+        assertEquals(Parser.integer().parse("9223372036854775808").isErr(), true);
+        assertEquals(Parser.integer().parse("-").isErr(), true);
+    }
+
+    @Test
+    public void byteBufferTest() {
+        final ByteBuffer bytes = ByteBuffer.wrap("xx[1,2]".getBytes(StandardCharsets.US_ASCII));
+        bytes.position(2);
+        final Parser<List<Long>> list = Parser.integer().sepBy(Parser.character(','))
+            .between(Parser.character('['), Parser.character(']'));
+        assertEquals(list.parse(bytes), Result.ok(Arrays.asList(1L, 2L)));
+        assertEquals(bytes.position(), 2);
+    }
+
+    @Test
+    public void memoTest() {
+        final AtomicInteger calls = new AtomicInteger();
+        final Parser<String> word = Parser.span(Character::isLetter, "word").map(w -> {
+            calls.incrementAndGet();
+            return w;
+        }).memo();
+        final Parser<String> grammar = word.skip(Parser.character('!')).or(word.skip(Parser.character('?')))
+            .or(word);
+        assertEquals(grammar.parse("hello"), Result.ok("hello"));
+        assertEquals(calls.get(), 1);
+        assertEquals(grammar.parse("hello?"), Result.ok("hello"));
+        assertEquals(calls.get(), 2);
+    }
+}
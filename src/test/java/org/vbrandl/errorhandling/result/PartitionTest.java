@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public final class PartitionTest {
+
+    @Test
+    public void ofTest() {
+        final Partition<Integer, String> res = Partition.of(Arrays.asList(
+            Result.<Integer, String>ok(1), Result.<Integer, String>err("a"), Result.<Integer, String>ok(2)));
+        assertEquals(res.oks(), Arrays.asList(1, 2));
+        assertEquals(res.errs(), Collections.singletonList("a"));
+        assertEquals(res.allOk(), false);
+    }
+
+    @Test
+    public void collectorTest() {
+        final Partition<Integer, Integer> res = IntStream.range(0, 10_000).boxed().parallel()
+            .map(x -> x % 3 == 0 ? Result.<Integer, Integer>err(x) : Result.<Integer, Integer>ok(x))
+            .collect(Partition.collector());
+        assertEquals(res.oks().size() + res.errs().size(), 10_000);
+        assertEquals(res.errs().get(1), Integer.valueOf(3));
+        assertEquals(res.oks().get(0), Integer.valueOf(1));
+    }
+
+    @Test
+    public void emptyOkTest() {
+        final Partition<Integer, String> res = Partition.of(
+            Collections.singletonList(Result.<Integer, String>ok(null)));
+        assertEquals(res.oks(), Collections.singletonList(null));
+        assertEquals(res.allOk(), true);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void unmodifiableTest() {
+        Partition.<Integer, String>of(Collections.emptyList()).oks().add(1);
+    }
+
+    @Test
+    public void equalsTest() {
+        final Partition<Integer, String> fst = Partition.of(Arrays.asList(Result.ok(1), Result.err("a")));
+        final Partition<Integer, String> snd = Partition.of(Arrays.asList(Result.err("a"), Result.ok(1)));
+        assertEquals(fst, snd);
+        assertEquals(fst.hashCode(), snd.hashCode());
+        assertNotEquals(fst, Partition.of(Collections.singletonList(Result.ok(1))));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class PipelineTest {
+
+    @Test
+    public void routingTest() {
+        final ConcurrentLinkedQueue<String> out = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<String> errs = new ConcurrentLinkedQueue<>();
+        final Pipeline.Running<String> running = Pipeline.<String, String>create(8, 4)
+            .then(s -> parse(s), 2)
+            .then(i -> i % 3 == 0 ? Result.<Integer, String>err("div3 " + i) : Result.<Integer, String>ok(i * 2), 2)
+            .then(i -> Result.<String, String>ok("v" + i), 1)
+            .start(out::add, errs::add);
+        for (int i = 1; i <= 1000; i++) {
+            running.submit(Integer.toString(i));
+        }
+        running.submit("x");
+        running.close();
+        assertEquals(out.size(), 1000 - 333);
+        assertEquals(errs.size(), 334);
+        assertEquals(errs.contains("bad x"), true);
+        assertEquals(errs.contains("div3 999"), true);
+        final List<String> sorted = new ArrayList<>(out);
+        Collections.sort(sorted);
+        assertEquals(sorted.contains("v2"), true);
+        assertEquals(sorted.contains("v6"), false);
+    }
+
+    @Test
+    public void stagesTest() {
+        final Pipeline<Integer, Integer, String> empty = Pipeline.create(4, 1);
+        final Pipeline<Integer, Integer, String> one = empty.then(i -> Result.ok(i), 1);
+        assertEquals(empty.stages(), 0);
+        assertEquals(one.stages(), 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void noStagesTest() {
+        Pipeline.<Integer, String>create(4, 1).start(i -> { }, e -> { });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        final Pipeline.Running<Integer> running = Pipeline.<Integer, String>create(4, 1)
+            .then(i -> Result.<Integer, String>ok(i), 1)
+            .start(i -> { }, e -> { });
+        running.close();
+        running.submit(1);
+    }
+
+    @Test
+    public void closeWhileSubmittingTest() throws Exception {
+        final AtomicInteger out = new AtomicInteger();
+        final AtomicInteger submitted = new AtomicInteger();
+        final Pipeline.Running<Integer> running = Pipeline.<Integer, String>create(4, 1)
+            .then(i -> Result.<Integer, String>ok(i), 2)
+            .start(i -> out.incrementAndGet(), e -> { });
+        final Thread producer = new Thread(() -> {
+            try {
+                while (true) {
+                    running.submit(1);
+                    submitted.incrementAndGet();
+                }
+            } catch (final IllegalStateException expected) {
+            }
+        });
+        producer.start();
+        Thread.sleep(10);
+        running.close();
+        producer.join();
+        assertEquals(out.get(), submitted.get());
+    }
+
+    @Test
+    public void throwingStageAndSinkTest() {
+        final ConcurrentLinkedQueue<Integer> out = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<String> errs = new ConcurrentLinkedQueue<>();
+        final Pipeline.Running<Integer> running = Pipeline.<Integer, String>create(8, 4)
+            .then(i -> {
+                if (i % 10 == 0) {
+                    throw new IllegalArgumentException("stage " + i);
+                }
+                return i % 10 == 1 ? Result.<Integer, String>err("err " + i) : Result.<Integer, String>ok(i);
+            }, 2)
+            .start(i -> {
+                if (i % 10 == 2) {
+                    throw new IllegalArgumentException("sink " + i);
+                }
+                out.add(i);
+            }, e -> {
+                if (e.equals("err 1")) {
+                    throw new IllegalArgumentException("errorSink");
+                }
+                errs.add(e);
+            });
+        final Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> { });
+        try {
+            for (int i = 0; i < 100; i++) {
+                running.submit(i);
+            }
+            running.close();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+        assertEquals(running.failed(), 10L + 10L + 1L);
+        assertEquals(out.size(), 70);
+        assertEquals(errs.size(), 9);
+    }
+
+    @Test
+    public void deadStageTest() {
+        final AssertionError error = new AssertionError("dead");
+        final Pipeline.Running<Integer> running = Pipeline.<Integer, String>create(4, 1)
+            .then(i -> Result.<Integer, String>ok(i), 1)
+            .then(i -> {
+                throw error;
+            }, 1)
+            .start(i -> { }, e -> { });
+        try {
+            for (int i = 0; i < 1000; i++) {
+                running.submit(i);
+            }
+            fail();
+        } catch (final IllegalStateException expected) {
+        }
+        try {
+            running.close();
+            fail();
+        } catch (final IllegalStateException ex) {
+            assertSame(ex.getCause(), error);
+        }
+    }
+
+    private static Result<Integer, String> parse(final String s) {
+        try {
+            return Result.ok(Integer.parseInt(s));
+        } catch (final NumberFormatException ex) {
+            return Result.err("bad " + s);
+        }
+    }
+}
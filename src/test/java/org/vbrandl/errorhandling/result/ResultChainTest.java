@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public final class ResultChainTest {
+
+    private static final int DEPTH = 1_000_000;
+
+    private static ResultChain<Long, String> countDown(final long n, final long acc) {
+        if (n == 0) {
+            return ResultChain.of(Result.ok(acc));
+        }
+        return ResultChain.<Long, String>of(Result.ok(n)).andThenChain(x -> countDown(x - 1, acc + x));
+    }
+
+    private static ResultChain<Long, String> retry(final long attempts) {
+        return ResultChain.<Long, String>of(Result.err("attempt " + attempts))
+            .orElseChain(e -> attempts == 0 ? ResultChain.of(Result.ok(0L)) : retry(attempts - 1));
+    }
+
+    @Test
+    public void stepsTest() {
+        final Result<String, Integer> res = ResultChain.<Integer, Integer>of(Result.ok(3))
+            .map(x -> x + 1)
+            .andThen(x -> Result.<Integer, Integer>err(x * 2))
+            .map(x -> x + 100) // no-op
+            .mapErr(x -> x + 1)
+            .orElse(x -> Result.<Integer, Integer>ok(x * 10))
+            .map(x -> x.toString())
+            .run();
+        assertEquals(res, Result.ok("90"));
+    }
+
+    @Test
+    public void emptyOkTest() {
+        final Result<Integer, String> res = ResultChain.<Integer, String>of(Result.ok(null))
+            .map(x -> x + 1)
+            .andThen(x -> Result.<Integer, String>err("unreachable"))
+            .run();
+        assertEquals(res, Result.ok(null));
+    }
+
+    @Test
+    public void longChainTest() {
+        ResultChain<Integer, Integer> chain = ResultChain.of(Result.ok(0));
+        for (int i = 0; i < DEPTH; i++) {
+            chain = i % 2 == 0
+                ? chain.andThen(x -> Result.err(x + 1))
+                : chain.orElse(x -> Result.ok(x + 1));
+        }
+        assertEquals(chain.length(), DEPTH);
+        assertEquals(chain.run(), Result.ok(DEPTH));
+    }
+
+    @Test
+    public void longMapErrChainTest() {
+        ResultChain<Integer, Integer> chain = ResultChain.of(Result.err(0));
+        for (int i = 0; i < DEPTH; i++) {
+            chain = chain.mapErr(x -> x + 1);
+        }
+        assertEquals(chain.run(), Result.err(DEPTH));
+    }
+
+    @Test
+    public void recursiveAndThenChainTest() {
+        assertEquals(countDown(DEPTH, 0).run(), Result.ok((long) DEPTH * (DEPTH + 1) / 2));
+    }
+
+    @Test
+    public void recursiveOrElseChainTest() {
+        assertEquals(retry(DEPTH).run(), Result.ok(0L));
+    }
+
+    @Test
+    public void nestedChainContinuesOuterStepsTest() {
+        final Result<Integer, String> res = ResultChain.<Integer, String>of(Result.ok(1))
+            .andThenChain(x -> ResultChain.<Integer, String>of(Result.ok(x + 1)).map(y -> y * 10))
+            .map(x -> x + 1)
+            .run();
+        assertEquals(res, Result.ok(21));
+    }
+
+    @Test
+    public void chainStepSkippedTest() {
+        final Result<Integer, String> res = ResultChain.<Integer, String>of(Result.err("e"))
+            .andThenChain(x -> ResultChain.of(Result.ok(x + 1)))
+            .mapErr(e -> e + "!")
+            .run();
+        assertEquals(res, Result.err("e!"));
+    }
+}
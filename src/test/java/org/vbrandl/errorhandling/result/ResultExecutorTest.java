@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Test;
+
+public final class ResultExecutorTest {
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    private final ResultExecutor executor = new ResultExecutor(this.pool);
+
+    @After
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    private static Callable<Integer> parse(final String input) {
+        return () -> Integer.parseInt(input);
+    }
+
+    @Test
+    public void submitOkTest() {
+        assertEquals(this.executor.submit(parse("42")).join(), Result.ok(42));
+    }
+
+    @Test
+    public void submitErrTest() {
+        final Result<Integer, Throwable> res = this.executor.submit(parse("x")).join();
+        assertEquals(res.getErr() instanceof NumberFormatException, true);
+    }
+
+    @Test
+    public void submitCheckedExceptionTest() {
+        final Result<Integer, String> res = this.executor.<Integer, String>submit(() -> {
+            throw new IOException("io");
+        }, Throwable::getMessage).join();
+        assertEquals(res, Result.err("io"));
+    }
+
+    @Test
+    public void submitResultTest() {
+        assertEquals(this.executor.submitResult(() -> Result.<Integer, String>err("plain"), Throwable::toString)
+            .join(), Result.err("plain"));
+    }
+
+    @Test
+    public void errFnFailureTest() {
+        final IllegalStateException failure = new IllegalStateException("errFn");
+        final CompletableFuture<Result<Integer, String>> future = this.executor.submit(parse("x"), ex -> {
+            throw failure;
+        });
+        try {
+            future.join();
+            fail();
+        } catch (final CompletionException ex) {
+            assertSame(ex.getCause(), failure);
+        }
+    }
+
+    @Test
+    public void rejectedTest() {
+        this.pool.shutdown();
+        final Result<Integer, String> res = this.executor.submit(parse("1"), ex -> "rejected").join();
+        assertEquals(res, Result.err("rejected"));
+    }
+
+    @Test
+    public void invokeAllTest() throws Exception {
+        final List<Callable<Integer>> tasks = Arrays.asList(parse("1"), parse("a"), parse("2"), parse("b"));
+        final Partition<Integer, String> res = this.executor.invokeAll(tasks, Throwable::getMessage);
+        assertEquals(res.oks(), Arrays.asList(1, 2));
+        assertEquals(res.errs(), Arrays.asList("For input string: \"a\"", "For input string: \"b\""));
+        assertEquals(res.allOk(), false);
+    }
+
+    @Test
+    public void invokeAllThrowableTest() throws Exception {
+        final Partition<Integer, Throwable> res = this.executor.invokeAll(Arrays.asList(parse("1"), parse("2")));
+        assertEquals(res.oks(), Arrays.asList(1, 2));
+        assertEquals(res.allOk(), true);
+    }
+
+    @Test
+    public void invokeAllErrFnFailureTest() throws Exception {
+        final IllegalStateException failure = new IllegalStateException("errFn");
+        final AtomicInteger calls = new AtomicInteger();
+        try {
+            this.executor.invokeAll(Arrays.asList(parse("1"), parse("a"), parse("b")), ex -> {
+                calls.incrementAndGet();
+                throw failure;
+            });
+            fail();
+        } catch (final IllegalStateException ex) {
+            assertSame(ex.getCause(), failure);
+            assertEquals(ex.getSuppressed().length, 1);
+        }
+        assertEquals(calls.get(), 2);
+    }
+
+    @Test
+    public void invokeAllErrorTest() throws Exception {
+        final Partition<Integer, Throwable> res = this.executor.invokeAll(Arrays.<Callable<Integer>>asList(() -> {
+            throw new AssertionError("boom");
+        }));
+        assertEquals(res.errs().get(0).getMessage(), "boom");
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public final class ResultFunctionTest {
+
+    private static final ResultFunction<String, Integer, String> PARSE = ResultFunction.of(s -> {
+        try {
+            return Result.ok(Integer.parseInt(s));
+        } catch (final NumberFormatException ex) {
+            return Result.err("not a number: " + s);
+        }
+    });
+
+    private static final ResultFunction<Integer, Integer, String> POSITIVE = ResultFunction.of(x -> x > 0
+        ? Result.ok(x)
+        : Result.err("not positive: " + x));
+
+    @Test
+    public void composeTest() {
+        final ResultFunction<String, String, String> fn = PARSE
+            .then(POSITIVE)
+            .map(x -> x * 2)
+            .map(x -> Integer.toString(x));
+        assertEquals(fn.length(), 4);
+        assertEquals(fn.apply("21"), Result.ok("42"));
+        assertEquals(fn.apply("-1"), Result.err("not positive: -1"));
+        assertEquals(fn.apply("x"), Result.err("not a number: x"));
+    }
+
+    @Test
+    public void recoverTest() {
+        final ResultFunction<String, Integer, String> fn = PARSE
+            .recover(e -> Result.<Integer, String>ok(0))
+            .then(x -> Result.ok(x + 1));
+        assertEquals(fn.apply("x"), Result.ok(1));
+        assertEquals(fn.apply("41"), Result.ok(42));
+    }
+
+    @Test
+    public void mapErrTest() {
+        final ResultFunction<String, Integer, Integer> fn = PARSE.mapErr(String::length);
+        assertEquals(fn.apply("abc"), Result.err("not a number: abc".length()));
+    }
+
+    @Test
+    public void identityAndLiftTest() {
+        final ResultFunction<Integer, Integer, String> id = ResultFunction.identity();
+        assertEquals(id.length(), 0);
+        assertEquals(id.apply(3), Result.ok(3));
+        final ResultFunction<Integer, String, String> lifted = ResultFunction.lift(x -> "v" + x);
+        assertEquals(lifted.apply(3), Result.ok("v3"));
+    }
+
+    @Test
+    public void nullInputTest() {
+        final ResultFunction<String, String, String> of = ResultFunction.of(
+            s -> s == null ? Result.err("null") : Result.ok(s));
+        assertEquals(of.apply(null), Result.err("null"));
+        final ResultFunction<String, String, String> lifted = ResultFunction.lift(String::valueOf);
+        assertEquals(lifted.apply(null), Result.ok("null"));
+        final ResultFunction<String, String, String> id = ResultFunction.identity();
+        assertEquals(id.apply(null), new Ok<>(null));
+    }
+
+    @Test
+    public void applyToTest() {
+        final ResultFunction<Integer, Integer, String> fn = POSITIVE.recover(e -> Result.ok(-1));
+        assertEquals(fn.applyTo(Result.ok(5)), Result.ok(5));
+        assertEquals(fn.applyTo(Result.err("upstream")), Result.ok(-1));
+    }
+
+    @Test
+    public void compositionIsImmutableTest() {
+        final ResultFunction<String, Integer, String> base = PARSE.map(x -> x + 1);
+        final ResultFunction<String, Integer, String> extended = base.map(x -> x * 10);
+        assertEquals(base.apply("1"), Result.ok(2));
+        assertEquals(extended.apply("1"), Result.ok(20));
+    }
+
+    @Test
+    public void reuseInStreamTest() {
+        final List<Result<Integer, String>> res = Arrays.asList("1", "0", "z").stream()
+            .map(PARSE.then(POSITIVE))
+            .collect(Collectors.toList());
+        assertEquals(res, Arrays.asList(Result.ok(1), Result.err("not positive: 0"), Result.err("not a number: z")));
+    }
+}
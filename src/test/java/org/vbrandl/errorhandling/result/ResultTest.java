@@ -44,7 +44,18 @@ package org.vbrandl.errorhandling.result;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 import org.junit.Test;
 
 public final class ResultTest {
@@ -88,6 +99,36 @@ public final class ResultTest {
         assertEquals(mappedErr, Result.err(true));
     }
 
+    @Test
+    public void mapWithTest() {
+        final Result<Integer, Boolean> mapped = createResult(true)
+            .mapWith(10, (ctx, x) -> x + ctx)
+            .mapErrWith(10, (ctx, x) -> !x); // no-op
+        assertEquals(mapped, Result.ok(13));
+    }
+
+    @Test
+    public void andThenWithTest() {
+        final Result<String, Boolean> mapped = createResult(true)
+            .andThenWith("v", (ctx, x) -> Result.ok(ctx + x));
+        assertEquals(mapped, Result.ok("v3"));
+    }
+
+    @Test
+    public void mapErrWithTest() {
+        final Result<Integer, String> mapped = createResult(false)
+            .mapErrWith("e:", (ctx, x) -> ctx + x)
+            .mapWith(10, (ctx, x) -> x + ctx); // no-op
+        assertEquals(mapped, Result.err("e:false"));
+    }
+
+    @Test
+    public void orElseWithTest() {
+        final Result<Integer, String> mapped = createResult(false)
+            .orElseWith(42, (ctx, x) -> Result.ok(ctx));
+        assertEquals(mapped, Result.ok(42));
+    }
+
     @Test
     public void getOkTest() {
         final Result<Integer, Boolean> mapped = createResult(true)
@@ -123,6 +164,18 @@ public final class ResultTest {
         assertEquals(res.hasValue(), false);
     }
 
+    @Test
+    public void streamOkTest() {
+        final Result<Integer, Boolean> res = createResult(true);
+        assertEquals(res.stream().collect(Collectors.toList()), Collections.singletonList(3));
+    }
+
+    @Test
+    public void streamErrTest() {
+        final Result<Integer, Boolean> res = createResult(false);
+        assertEquals(res.stream().count(), 0L);
+    }
+
     @Test
     public void isOkOkTest() {
         final Result<?, ?> res = Result.ok(5);
@@ -262,4 +315,83 @@ public final class ResultTest {
         assertNotEquals(Result.ok(3), Result.err(3));
         assertNotEquals(Result.ok(42), Result.err(3));
     }
+
+    @Test
+    public void zipOkTest() {
+        final Result<Integer, String> res = Result.zip(Result.ok(1), Result.ok(2), (a, b) -> a + b);
+        assertEquals(res, Result.ok(3));
+    }
+
+    @Test
+    public void zipFirstErrTest() {
+        final Result<Integer, String> res = Result.zip(Result.ok(1), Result.<Integer, String>err("b"),
+            Result.<Integer, String>err("c"), (a, b, c) -> a + b + c);
+        assertEquals(res, Result.err("b"));
+    }
+
+    @Test
+    public void zipEightTest() {
+        final Result<Integer, String> res = Result.zip(Result.ok(1), Result.ok(2), Result.ok(3), Result.ok(4),
+            Result.ok(5), Result.ok(6), Result.ok(7), Result.ok(8),
+            (a, b, c, d, e, f, g, h) -> a + b + c + d + e + f + g + h);
+        assertEquals(res, Result.ok(36));
+    }
+
+    @Test
+    public void zipDoesNotCallCombinerOnErrTest() {
+        final Result<Integer, String> res = Result.zip(Result.ok(1), Result.ok(2), Result.ok(3), Result.ok(4),
+            Result.<Integer, String>err("e"), Result.ok(6), (a, b, c, d, e, f) -> {
+                throw new IllegalStateException();
+            });
+        assertEquals(res, Result.err("e"));
+    }
+
+    @Test
+    public void zipAllOkTest() {
+        final Result<String, List<String>> res = Result.zipAll(Result.ok("a"), Result.ok(2), Result.ok(true),
+            Result.ok('d'), (a, b, c, d) -> a + b + c + d);
+        assertEquals(res, Result.ok("a2trued"));
+    }
+
+    @Test
+    public void zipAllCollectsErrorsTest() {
+        final Result<Integer, List<String>> res = Result.zipAll(Result.<Integer, String>err("a"), Result.ok(2),
+            Result.<Integer, String>err("c"), Result.ok(4), Result.<Integer, String>err("e"), Result.ok(6),
+            Result.ok(7), (a, b, c, d, e, f, g) -> 0);
+        assertEquals(res, Result.err(Arrays.asList("a", "c", "e")));
+    }
+
+    @Test
+    public void comparatorTest() {
+        final List<Result<Integer, String>> results = new ArrayList<>(Arrays.asList(
+            Result.err("b"), Result.ok(2), Result.err(null), Result.ok(null), Result.ok(1), Result.err("a")));
+        results.sort(Result.naturalOrder());
+        assertEquals(results, Arrays.asList(
+            Result.ok(null), Result.ok(1), Result.ok(2), Result.err(null), Result.err("a"), Result.err("b")));
+    }
+
+    @Test
+    public void customComparatorTest() {
+        final TreeSet<Result<Integer, String>> set = new TreeSet<>(Result.<Integer, String>comparator(
+            Comparator.reverseOrder(), Comparator.comparing(String::length)));
+        set.addAll(Arrays.asList(Result.ok(1), Result.ok(3), Result.err("xx"), Result.err("y"), Result.err("zz")));
+        assertEquals(new ArrayList<>(set), Arrays.asList(
+            Result.ok(3), Result.ok(1), Result.err("y"), Result.err("xx")));
+    }
+
+    @Test
+    public void hashDistributionTest() {
+        final int count = 100000;
+        final Set<Integer> hashes = new HashSet<>();
+        final Map<Result<Integer, Integer>, Integer> map = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            hashes.add(Result.<Integer, Integer>ok(i).hashCode());
+            hashes.add(Result.<Integer, Integer>err(i).hashCode());
+            map.put(Result.ok(i), i);
+            map.put(Result.err(i), -i);
+        }
+        assertEquals(hashes.size(), 2 * count);
+        assertEquals(map.size(), 2 * count);
+        assertEquals(map.get(Result.<Integer, Integer>err(42)), Integer.valueOf(-42));
+    }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class RingBufferTest {
+
+    @Test
+    public void capacityTest() {
+        assertEquals(new RingBuffer<Integer>(1).capacity(), 2);
+        assertEquals(new RingBuffer<Integer>(5).capacity(), 8);
+        assertEquals(new RingBuffer<Integer>(8).capacity(), 8);
+    }
+
+    @Test
+    public void offerPollTest() {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(buffer.offer(i), true);
+        }
+        assertEquals(buffer.offer(4), false);
+        assertEquals(buffer.size(), 4);
+        assertEquals(buffer.poll(), Integer.valueOf(0));
+        assertEquals(buffer.offer(4), true);
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(buffer.drain(drained::add, 10), 4);
+        assertEquals(drained.toString(), "[1, 2, 3, 4]");
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        final RingBuffer<Integer> buffer = new RingBuffer<>(16);
+        final int producers = 4;
+        final int perProducer = 10000;
+        final AtomicInteger consumed = new AtomicInteger();
+        final ConcurrentHashMap<Integer, Boolean> seen = new ConcurrentHashMap<>();
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+            threads.add(new Thread(() -> {
+                while (consumed.get() < producers * perProducer) {
+                    final Integer value = buffer.poll();
+                    if (value == null) {
+                        Thread.yield();
+                    } else {
+                        seen.put(value, Boolean.TRUE);
+                        consumed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(seen.size(), producers * perProducer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityTest() {
+        new RingBuffer<Integer>(0);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class SingleFlightTest {
+
+    @Test
+    public void coalesceTest() throws Exception {
+        final SingleFlight<String, Integer, String> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            final Future<Result<Integer, String>> leader = pool.submit(() -> flight.get("k", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                await(release);
+                return Result.ok(42);
+            }));
+            started.await();
+            final List<Future<Result<Integer, String>>> followers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                followers.add(pool.submit(() -> flight.get("k", () -> {
+                    calls.incrementAndGet();
+                    return Result.ok(0);
+                })));
+            }
+            while (flight.inFlight() != 1) {
+                Thread.yield();
+            }
+            Thread.sleep(50);
+            release.countDown();
+            assertEquals(leader.get(), Result.ok(42));
+            for (final Future<Result<Integer, String>> follower : followers) {
+                assertEquals(follower.get(), Result.ok(42));
+            }
+            assertEquals(calls.get(), 1);
+            assertEquals(flight.inFlight(), 0);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void noCachingTest() {
+        final SingleFlight<String, Integer, String> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        flight.get("k", () -> Result.ok(calls.incrementAndGet()));
+        assertEquals(flight.get("k", () -> Result.ok(calls.incrementAndGet())), Result.ok(2));
+    }
+
+    @Test
+    public void asyncErrTest() {
+        final SingleFlight<String, Integer, String> flight = new SingleFlight<>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final CompletableFuture<Result<Integer, String>> fst = flight.getAsync("k", () -> {
+                calls.incrementAndGet();
+                await(release);
+                return Result.err("down");
+            }, pool);
+            final CompletableFuture<Result<Integer, String>> snd = flight.getAsync("k", () -> {
+                calls.incrementAndGet();
+                return Result.ok(1);
+            }, pool);
+            snd.cancel(false);
+            release.countDown();
+            assertEquals(fst.join(), Result.err("down"));
+            assertEquals(calls.get(), 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwingTest() {
+        new SingleFlight<String, Integer, String>().get("k", () -> {
+            throw new IllegalStateException();
+        });
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public final class StructuredErrorTest {
+
+    private static final class CountingArg {
+        private int rendered;
+
+        @Override
+        public String toString() {
+            this.rendered++;
+            return "arg";
+        }
+    }
+
+    @Test
+    public void messageTest() {
+        final StructuredError err = StructuredError.of("E42", "value %d is out of range [%d, %d]", 7, 0, 5);
+        assertEquals(err.code(), "E42");
+        assertEquals(err.message(), "value 7 is out of range [0, 5]");
+        assertEquals(err.toString(), "E42: value 7 is out of range [0, 5]");
+    }
+
+    @Test
+    public void fixedMessageTest() {
+        final StructuredError err = StructuredError.of("E1", "100% broken");
+        assertEquals(err.message(), "100% broken");
+    }
+
+    @Test
+    public void deferredRenderingTest() {
+        final CountingArg arg = new CountingArg();
+        final StructuredError err = StructuredError.of("E1", "failed: %s", arg);
+        assertEquals(arg.rendered, 0);
+        err.message();
+        err.toString();
+        assertEquals(arg.rendered, 1);
+    }
+
+    @Test
+    public void equalsOnCodeTest() {
+        assertEquals(StructuredError.of("E1", "a %s", 1), StructuredError.of("E1", "b %s", 2));
+        assertEquals(StructuredError.of("E1", "a").hashCode(), StructuredError.of("E1", "b").hashCode());
+        assertNotEquals(StructuredError.of("E1", "a"), StructuredError.of("E2", "a"));
+        assertNotEquals(StructuredError.of("E1", "a"), "E1");
+        assertNotEquals(StructuredError.of("E1", "a"), null);
+    }
+
+    @Test
+    public void deepEqualsTest() {
+        assertEquals(StructuredError.of("E1", "a %s", 1).deepEquals(StructuredError.of("E1", "a %s", 1)), true);
+        assertEquals(StructuredError.of("E1", "a %s", 1).deepEquals(StructuredError.of("E1", "a %s", 2)), false);
+    }
+
+    @Test
+    public void resultFactoryTest() {
+        final Result<Integer, StructuredError> res = Result.err("E7", "missing key %s", "foo");
+        assertEquals(res, Result.err(StructuredError.of("E7", "")));
+        assertEquals(res.getErr().message(), "missing key foo");
+        assertEquals(Result.<Integer>err("E8", "plain").getErr().message(), "plain");
+    }
+}
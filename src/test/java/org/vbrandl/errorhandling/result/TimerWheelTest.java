@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2017 Brandl, Valentin <mail+github@vbrandl.net>
+ * Author: Brandl, Valentin <mail+github@vbrandl.net>
+ *
+ * Licensed unter the Apache License, Version 2.0 or the MIT license, at your
+ * option.
+ *
+ * ********************************************************************************
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER
+ * IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN
+ * CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ *
+ * ********************************************************************************
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.vbrandl.errorhandling.result;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class TimerWheelTest {
+
+    @Test
+    public void scheduleTest() throws Exception {
+        try (TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 8)) {
+            final CountDownLatch fired = new CountDownLatch(2);
+            final long start = System.nanoTime();
+            // longer than a full rotation of the wheel
+            final TimerWheel.Timeout timeout = wheel.schedule(fired::countDown, 20, TimeUnit.MILLISECONDS);
+            wheel.schedule(fired::countDown, 1, TimeUnit.MILLISECONDS);
+            assertEquals(fired.await(5, TimeUnit.SECONDS), true);
+            assertEquals(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20), true);
+            assertEquals(timeout.isExpired(), true);
+            assertEquals(timeout.cancel(), false);
+        }
+    }
+
+    @Test
+    public void cancelTest() throws Exception {
+        try (TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 8)) {
+            final AtomicInteger calls = new AtomicInteger();
+            final TimerWheel.Timeout timeout = wheel.schedule(calls::incrementAndGet, 5, TimeUnit.MILLISECONDS);
+            assertEquals(timeout.cancel(), true);
+            final CountDownLatch later = new CountDownLatch(1);
+            wheel.schedule(later::countDown, 20, TimeUnit.MILLISECONDS);
+            later.await(5, TimeUnit.SECONDS);
+            assertEquals(timeout.isCancelled(), true);
+            assertEquals(calls.get(), 0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closedTest() {
+        final TimerWheel wheel = new TimerWheel(1, TimeUnit.MILLISECONDS, 8);
+        wheel.close();
+        wheel.schedule(() -> { }, 1, TimeUnit.MILLISECONDS);
+    }
+}